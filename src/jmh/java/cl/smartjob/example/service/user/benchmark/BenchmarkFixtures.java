@@ -0,0 +1,133 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.config.ShardingProperties;
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.exception.GlobalExceptionHandler;
+import cl.smartjob.example.service.user.mapper.EntityUserMapper;
+import cl.smartjob.example.service.user.service.RegistrationLog;
+import cl.smartjob.example.service.user.service.ShardRouter;
+import cl.smartjob.example.service.user.util.ContentFormats;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+
+/**
+ * Shared fixtures for the benchmarks. Components are built outside of Spring, with the same
+ * configuration the application reads from application.yml.
+ */
+final class BenchmarkFixtures {
+
+    private static final Properties PROPERTIES = loadApplicationProperties();
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * ValidationUtil configured with the regexes and messages of application.yml
+     */
+    static ValidationUtil validationUtil() {
+        ValidationUtil validationUtil = new ValidationUtil();
+        inject(validationUtil, "emailRegex", property("validation.email.regex"));
+        inject(validationUtil, "emailMessage", property("validation.email.message"));
+        inject(validationUtil, "passwordRegex", property("validation.password.regex"));
+        inject(validationUtil, "passwordMessage", property("validation.password.message"));
+        inject(validationUtil, "userMessage", property("validation.user.message"));
+        inject(validationUtil, "fallbackMaxLength", Integer.parseInt(property("validation.fallback.max-length")));
+        return validationUtil;
+    }
+
+    /**
+     * ObjectMapper with the modules Spring Boot registers by default
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * JSON, Smile and CBOR formats, each with the modules Spring Boot registers by default
+     */
+    static ContentFormats contentFormats() {
+        return new ContentFormats(objectMapper(), Jackson2ObjectMapperBuilder.smile().build(),
+            Jackson2ObjectMapperBuilder.cbor().build());
+    }
+
+    /**
+     * GlobalExceptionHandler with the error bodies of the configured messages serialized
+     */
+    static GlobalExceptionHandler exceptionHandler() {
+        GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+        inject(exceptionHandler, "contentFormats", contentFormats());
+        inject(exceptionHandler, "validationUtil", validationUtil());
+        exceptionHandler.initializeBodies();
+        return exceptionHandler;
+    }
+
+    /**
+     * RegistrationLog logging the given share of registrations
+     */
+    static RegistrationLog registrationLog(double sampleRate) {
+        RegistrationLog registrationLog = new RegistrationLog();
+        inject(registrationLog, "sampleRate", sampleRate);
+        return registrationLog;
+    }
+
+    /**
+     * ShardRouter over a number of shards, without creating any schema
+     */
+    static ShardRouter shardRouter(int shards) {
+        ShardRouter shardRouter = new ShardRouter();
+        inject(shardRouter, "shardingProperties",
+            new ShardingProperties(Collections.nCopies(shards, new ShardingProperties.Shard(null, null, null))));
+        inject(shardRouter, "ddlAuto", "none");
+        shardRouter.start();
+        return shardRouter;
+    }
+
+    /**
+     * Typical registration request
+     */
+    static UserRequestDTO userRequest() {
+        return new UserRequestDTO("Juan Rodriguez", "juan@rodriguez.org", "Password123!",
+            Arrays.asList(new PhoneDTO("1234567", "1", "57"), new PhoneDTO("7654321", "2", "56")));
+    }
+
+    /**
+     * User entity as it looks after being saved
+     */
+    static User savedUser() {
+        User user = new EntityUserMapper().toUser(userRequest(), "$2a$10$encodedPassword");
+        user.setId(UUID.randomUUID());
+        user.setCreated(LocalDateTime.now());
+        user.setModified(LocalDateTime.now());
+        return user;
+    }
+
+    static String property(String name) {
+        return PROPERTIES.getProperty(name);
+    }
+
+    private static Properties loadApplicationProperties() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        return yaml.getObject();
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,79 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import cl.smartjob.example.service.user.dto.ErrorResponseDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.mapper.DtoUserMapper;
+import cl.smartjob.example.service.user.util.ContentFormats;
+
+/**
+ * Benchmarks of the registration payloads in each format the API negotiates: reading the request
+ * and writing the response, as the message converters do. The encoded size of each payload is
+ * printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContentFormatBenchmark {
+
+    @Param({ "json", "smile", "cbor" })
+    private String format;
+
+    private ObjectReader requestReader;
+    private ObjectReader responseReader;
+    private ObjectWriter responseWriter;
+    private UserResponseDTO userResponse;
+    private byte[] userRequestBytes;
+    private byte[] userResponseBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        MediaType mediaType = switch (format) {
+            case "smile" -> ContentFormats.SMILE;
+            case "cbor" -> MediaType.APPLICATION_CBOR;
+            default -> MediaType.APPLICATION_JSON;
+        };
+        ObjectMapper objectMapper = BenchmarkFixtures.contentFormats().mapper(mediaType);
+        requestReader = objectMapper.readerFor(UserRequestDTO.class);
+        responseReader = objectMapper.readerFor(UserResponseDTO.class);
+        responseWriter = objectMapper.writerFor(UserResponseDTO.class);
+        userResponse = new DtoUserMapper().toResponseDTO(BenchmarkFixtures.savedUser());
+        userRequestBytes = objectMapper.writeValueAsBytes(BenchmarkFixtures.userRequest());
+        userResponseBytes = responseWriter.writeValueAsBytes(userResponse);
+        byte[] errorBytes = objectMapper.writeValueAsBytes(new ErrorResponseDTO("El usuario se encuentra registrado"));
+        System.out.printf("%n%s: request %d bytes, response %d bytes, error %d bytes%n", format,
+            userRequestBytes.length, userResponseBytes.length, errorBytes.length);
+    }
+
+    @Benchmark
+    public UserRequestDTO readUserRequest() throws IOException {
+        return requestReader.readValue(userRequestBytes);
+    }
+
+    @Benchmark
+    public byte[] writeUserResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public UserResponseDTO readUserResponse() throws IOException {
+        return responseReader.readValue(userResponseBytes);
+    }
+}
@@ -0,0 +1,123 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import cl.smartjob.example.service.user.util.UuidV7;
+
+/**
+ * Benchmark of user id generators on a table of users keyed by a BINARY(16) primary key, in an H2
+ * file database. The table is first loaded with the given number of rows, 10M by default, which is
+ * timed and printed with the size of the table and its primary key index; the benchmark then
+ * measures inserting and committing one more batch of rows into the full table. Select it with
+ * -PjmhIncludes=IdInsertBenchmark, and a smaller table with -PjmhParams=rows=1000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class IdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_SIZE = 10_000;
+
+    @Param({"random", "v7"})
+    private String generator;
+
+    @Param({"10000000"})
+    private long rows;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+    private final ByteBuffer idBytes = ByteBuffer.allocate(16);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        ids = "v7".equals(generator) ? UuidV7::generate : UUID::randomUUID;
+        directory = Files.createTempDirectory("id-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("users"), "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BINARY(16) PRIMARY KEY, created TIMESTAMP NOT NULL)");
+        }
+        connection.commit();
+        insert = connection.prepareStatement("INSERT INTO users (id, created) VALUES (?, ?)");
+
+        long start = System.nanoTime();
+        for (long loaded = 0; loaded < rows; loaded += BATCH_SIZE) {
+            insertBatch();
+            if ((loaded + BATCH_SIZE) % COMMIT_SIZE == 0) {
+                connection.commit();
+            }
+        }
+        connection.commit();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%n%s: loaded %,d rows in %.1f s, %,.0f rows/s; table and index %,d KB%n", generator,
+            rows, seconds, rows / seconds, diskSpaceUsed() / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    @Benchmark
+    public void insertBatch1000() throws SQLException {
+        insertBatch();
+        connection.commit();
+    }
+
+    private void insertBatch() throws SQLException {
+        Timestamp created = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            UUID id = ids.get();
+            idBytes.clear();
+            idBytes.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+            insert.setBytes(1, idBytes.array());
+            insert.setTimestamp(2, created);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+    }
+
+    /**
+     * Size of the pages of the table and its primary key index, once written out
+     */
+    private long diskSpaceUsed() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT SYNC");
+            try (ResultSet result = statement.executeQuery("CALL DISK_SPACE_USED('USERS')")) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+}
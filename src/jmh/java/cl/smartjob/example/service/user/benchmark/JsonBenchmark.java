@@ -0,0 +1,82 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.mapper.DtoUserMapper;
+
+/**
+ * Benchmarks of the JSON round trips done per registration: reading the request and writing the
+ * response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter responseWriter;
+    private UserRequestDTO userRequest;
+    private UserResponseDTO userResponse;
+    private byte[] userRequestJson;
+    private byte[] userResponseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        requestReader = objectMapper.readerFor(UserRequestDTO.class);
+        requestWriter = objectMapper.writerFor(UserRequestDTO.class);
+        responseReader = objectMapper.readerFor(UserResponseDTO.class);
+        responseWriter = objectMapper.writerFor(UserResponseDTO.class);
+        userRequest = BenchmarkFixtures.userRequest();
+        userResponse = new DtoUserMapper().toResponseDTO(BenchmarkFixtures.savedUser());
+        userRequestJson = requestWriter.writeValueAsBytes(userRequest);
+        userResponseJson = responseWriter.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public UserRequestDTO readUserRequest() throws IOException {
+        return requestReader.readValue(userRequestJson);
+    }
+
+    @Benchmark
+    public byte[] writeUserRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(userRequest);
+    }
+
+    @Benchmark
+    public UserResponseDTO readUserResponse() throws IOException {
+        return responseReader.readValue(userResponseJson);
+    }
+
+    @Benchmark
+    public byte[] writeUserResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public UserRequestDTO roundTripUserRequest() throws IOException {
+        return requestReader.readValue(requestWriter.writeValueAsBytes(userRequest));
+    }
+
+    @Benchmark
+    public UserResponseDTO roundTripUserResponse() throws IOException {
+        return responseReader.readValue(responseWriter.writeValueAsBytes(userResponse));
+    }
+}
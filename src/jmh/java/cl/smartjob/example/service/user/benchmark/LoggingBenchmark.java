@@ -0,0 +1,98 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerContextSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.service.RegistrationMetrics;
+import cl.smartjob.example.service.user.service.RegistrationWriter;
+import cl.smartjob.example.service.user.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks of the cost of the registration log, off, sampled and on for every request, under
+ * log4j2-production.xml with synchronous or asynchronous loggers. Requests are duplicate
+ * registrations rejected by UserService on a single thread, the cheapest requests and so the ones
+ * logging weighs on the most. They are called in process rather than over HTTP: a log line costs a
+ * few microseconds, well below the noise of the server and the load generator sharing the cores.
+ * Each parameter combination runs in its own JVM, which configures Log4j on first use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class LoggingBenchmark {
+
+    @Param({ "sync", "async" })
+    private String loggers;
+
+    @Param({ "0", "0.01", "1" })
+    private double sampleRate;
+
+    private Path logDir;
+    private UserService userService;
+    private UserRequestDTO duplicate;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Before anything touches Log4j
+        logDir = Files.createTempDirectory("logging-benchmark");
+        System.setProperty("LOG_PATH", logDir.toString());
+        System.setProperty("log4j2.configurationFile", "log4j2-production.xml");
+        if ("async".equals(loggers)) {
+            System.setProperty("log4j2.contextSelector", AsyncLoggerContextSelector.class.getName());
+        }
+        if ("async".equals(loggers) != LogManager.getContext(false) instanceof AsyncLoggerContext) {
+            throw new IllegalStateException("Log4j was initialized before the benchmark configured it");
+        }
+
+        RegistrationMetrics registrationMetrics = new RegistrationMetrics();
+        BenchmarkFixtures.inject(registrationMetrics, "meterRegistry", new SimpleMeterRegistry());
+        registrationMetrics.registerMetrics();
+        RegistrationWriter registrationWriter = new RegistrationWriter();
+        registrationWriter.reserve("duplicate@rodriguez.org", UUID.randomUUID());
+
+        userService = new UserService();
+        BenchmarkFixtures.inject(userService, "validationUtil", BenchmarkFixtures.validationUtil());
+        BenchmarkFixtures.inject(userService, "registrationMetrics", registrationMetrics);
+        BenchmarkFixtures.inject(userService, "registrationWriter", registrationWriter);
+        BenchmarkFixtures.inject(userService, "registrationLog", BenchmarkFixtures.registrationLog(sampleRate));
+        duplicate = BenchmarkFixtures.userRequest();
+        duplicate.setEmail("duplicate@rodriguez.org");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        LogManager.shutdown();
+        FileSystemUtils.deleteRecursively(logDir);
+    }
+
+    @Benchmark
+    public EmailAlreadyExistsException rejectDuplicate() {
+        try {
+            userService.registerUser(duplicate);
+            throw new IllegalStateException("accepted");
+        } catch (EmailAlreadyExistsException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.mapper.DtoUserMapper;
+import cl.smartjob.example.service.user.mapper.EntityUserMapper;
+
+/**
+ * Benchmarks of the DTO to entity and entity to DTO mappers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private EntityUserMapper entityUserMapper;
+    private DtoUserMapper dtoUserMapper;
+    private UserRequestDTO userRequest;
+    private User savedUser;
+
+    @Setup
+    public void setUp() {
+        entityUserMapper = new EntityUserMapper();
+        dtoUserMapper = new DtoUserMapper();
+        userRequest = BenchmarkFixtures.userRequest();
+        savedUser = BenchmarkFixtures.savedUser();
+    }
+
+    @Benchmark
+    public User toUser() {
+        return entityUserMapper.toUser(userRequest, "$2a$10$encodedPassword");
+    }
+
+    @Benchmark
+    public UserResponseDTO toResponseDTO() {
+        return dtoUserMapper.toResponseDTO(savedUser);
+    }
+}
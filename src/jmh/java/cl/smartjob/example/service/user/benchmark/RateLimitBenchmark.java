@@ -0,0 +1,54 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.util.TokenBucketLimiter;
+
+/**
+ * Benchmarks of the rate limiter: the allowed path, spread over many clients, and a single client
+ * kept over its limit
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 4096;
+
+    private TokenBucketLimiter allowing;
+    private TokenBucketLimiter limiting;
+    private String[] addresses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        allowing = new TokenBucketLimiter(Integer.MAX_VALUE, 1e9, 100_000, Duration.ofMinutes(10));
+        limiting = new TokenBucketLimiter(1, 1e-3, 100_000, Duration.ofMinutes(10));
+        addresses = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+            allowing.tryAcquire(addresses[i]);
+        }
+        limiting.tryAcquire(addresses[0]);
+    }
+
+    @Benchmark
+    public long allowed() {
+        next = (next + 1) & (CLIENTS - 1);
+        return allowing.tryAcquire(addresses[next]);
+    }
+
+    @Benchmark
+    public long limited() {
+        return limiting.tryAcquire(addresses[0]);
+    }
+}
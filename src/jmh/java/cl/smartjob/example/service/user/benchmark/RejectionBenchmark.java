@@ -0,0 +1,112 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.dto.ErrorResponseDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.exception.GlobalExceptionHandler;
+import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.service.RegistrationMetrics;
+import cl.smartjob.example.service.user.service.RegistrationWriter;
+import cl.smartjob.example.service.user.service.UserService;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks of rejected registrations on a single thread, i.e. rejections per second per core:
+ * from UserService through GlobalExceptionHandler to the error body. The duplicate is caught by an
+ * email reserved by a queued registration, so no database is involved. A stack-traced exception
+ * serialized on every rejection is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class RejectionBenchmark {
+
+    private UserService userService;
+    private GlobalExceptionHandler exceptionHandler;
+    private ObjectMapper objectMapper;
+    private String emailMessage;
+    private UserRequestDTO invalidEmail;
+    private UserRequestDTO invalidPassword;
+    private UserRequestDTO duplicate;
+
+    @Setup
+    public void setUp() {
+        ValidationUtil validationUtil = BenchmarkFixtures.validationUtil();
+        RegistrationMetrics registrationMetrics = new RegistrationMetrics();
+        BenchmarkFixtures.inject(registrationMetrics, "meterRegistry", new SimpleMeterRegistry());
+        registrationMetrics.registerMetrics();
+        RegistrationWriter registrationWriter = new RegistrationWriter();
+        registrationWriter.reserve("duplicate@rodriguez.org", UUID.randomUUID());
+
+        userService = new UserService();
+        BenchmarkFixtures.inject(userService, "validationUtil", validationUtil);
+        BenchmarkFixtures.inject(userService, "registrationMetrics", registrationMetrics);
+        // Without the registration log, which LoggingBenchmark measures
+        BenchmarkFixtures.inject(userService, "registrationLog", BenchmarkFixtures.registrationLog(0));
+        BenchmarkFixtures.inject(userService, "registrationWriter", registrationWriter);
+        exceptionHandler = BenchmarkFixtures.exceptionHandler();
+        objectMapper = BenchmarkFixtures.objectMapper();
+        emailMessage = validationUtil.getEmailMessage();
+
+        invalidEmail = BenchmarkFixtures.userRequest();
+        invalidEmail.setEmail("juan.rodriguez@rodriguez");
+        invalidPassword = BenchmarkFixtures.userRequest();
+        invalidPassword.setPassword("password123");
+        duplicate = BenchmarkFixtures.userRequest();
+        duplicate.setEmail("duplicate@rodriguez.org");
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> rejectInvalidEmail() {
+        try {
+            userService.registerUser(invalidEmail);
+            throw new IllegalStateException("accepted");
+        } catch (ValidationException ex) {
+            return exceptionHandler.handleValidationException(ex, null);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> rejectInvalidPassword() {
+        try {
+            userService.registerUser(invalidPassword);
+            throw new IllegalStateException("accepted");
+        } catch (ValidationException ex) {
+            return exceptionHandler.handleValidationException(ex, null);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> rejectDuplicate() {
+        try {
+            userService.registerUser(duplicate);
+            throw new IllegalStateException("accepted");
+        } catch (EmailAlreadyExistsException ex) {
+            return exceptionHandler.handleEmailAlreadyExistsException(ex, null);
+        }
+    }
+
+    @Benchmark
+    public byte[] stackTracedAndSerialized() throws JsonProcessingException {
+        RuntimeException ex = new RuntimeException(emailMessage);
+        return objectMapper.writeValueAsBytes(new ErrorResponseDTO(ex.getMessage()));
+    }
+}
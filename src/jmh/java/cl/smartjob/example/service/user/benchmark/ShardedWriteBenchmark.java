@@ -0,0 +1,120 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.smartjob.example.service.user.service.ShardRouter;
+import cl.smartjob.example.service.user.util.UuidV7;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Benchmark of registration writes spread over a number of shards, each an H2 file database with
+ * its own connection pool. Every operation routes a new email with ShardRouter and inserts the
+ * user and its phone in one transaction on that shard, as registration does, from several
+ * threads at once. Select it with -PjmhIncludes=ShardedWriteBenchmark.
+ * 
+ * The shards are embedded in the benchmark JVM, so they share its cores and disk: the throughput
+ * can only grow with the shard count as far as the host has cores and disks to spread them over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Fork(1)
+public class ShardedWriteBenchmark {
+
+    private static final String USERS_DDL = "CREATE TABLE users (id BINARY(16) PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+        + "email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, created TIMESTAMP NOT NULL, "
+        + "CONSTRAINT uk_users_email UNIQUE (email))";
+    private static final String PHONES_DDL = "CREATE TABLE phones (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+        + "number VARCHAR(50) NOT NULL, user_id BINARY(16) REFERENCES users (id))";
+
+    @Param({"1", "2", "4"})
+    private int shards;
+
+    private Path directory;
+    private ShardRouter shardRouter;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final AtomicLong emails = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("shard-benchmark");
+        shardRouter = BenchmarkFixtures.shardRouter(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl("jdbc:h2:file:" + directory.resolve("shard" + shard));
+            pool.setUsername("sa");
+            pool.setPassword("");
+            pool.setAutoCommit(false);
+            pool.setMaximumPoolSize(8);
+            try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute(USERS_DDL);
+                statement.execute(PHONES_DDL);
+                connection.commit();
+            }
+            pools.add(pool);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pools.forEach(HikariDataSource::close);
+        shardRouter.stop();
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    @Benchmark
+    public void register() throws SQLException {
+        String email = "user" + emails.incrementAndGet() + "@smartjob.cl";
+        UUID id = UuidV7.generate();
+        byte[] idBytes = ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array();
+        try (Connection connection = pools.get(shardRouter.shardOf(email)).getConnection()) {
+            try (PreparedStatement user = connection.prepareStatement(
+                "INSERT INTO users (id, name, email, password, created) VALUES (?, ?, ?, ?, ?)")) {
+                user.setBytes(1, idBytes);
+                user.setString(2, "Juan Rodriguez");
+                user.setString(3, email);
+                user.setString(4, "$2a$10$encodedPassword");
+                user.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                user.executeUpdate();
+            }
+            try (PreparedStatement phone = connection.prepareStatement(
+                "INSERT INTO phones (number, user_id) VALUES (?, ?)")) {
+                phone.setString(1, "1234567");
+                phone.setBytes(2, idBytes);
+                phone.executeUpdate();
+            }
+            connection.commit();
+        }
+    }
+}
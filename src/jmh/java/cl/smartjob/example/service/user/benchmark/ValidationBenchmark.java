@@ -0,0 +1,77 @@
+package cl.smartjob.example.service.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import cl.smartjob.example.service.user.util.ValidationUtil;
+
+/**
+ * Benchmarks of the configured email and password validation, with java.util.regex on the same
+ * regexes as a baseline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    private static final String LONG_EMAIL = "a@" + "a".repeat(2000) + "!";
+
+    private ValidationUtil validationUtil;
+    private Pattern emailPattern;
+    private Pattern passwordPattern;
+
+    @Setup
+    public void setUp() {
+        validationUtil = BenchmarkFixtures.validationUtil();
+        emailPattern = Pattern.compile(BenchmarkFixtures.property("validation.email.regex"));
+        passwordPattern = Pattern.compile(BenchmarkFixtures.property("validation.password.regex"));
+    }
+
+    @Benchmark
+    public boolean validEmail() {
+        return validationUtil.isValidEmail("juan.rodriguez@rodriguez.org");
+    }
+
+    @Benchmark
+    public boolean invalidEmail() {
+        return validationUtil.isValidEmail("juan.rodriguez@rodriguez");
+    }
+
+    @Benchmark
+    public boolean validPassword() {
+        return validationUtil.isValidPassword("Password123!");
+    }
+
+    @Benchmark
+    public boolean invalidPassword() {
+        return validationUtil.isValidPassword("password123");
+    }
+
+    @Benchmark
+    public boolean longInvalidEmail() {
+        return validationUtil.isValidEmail(LONG_EMAIL);
+    }
+
+    @Benchmark
+    public boolean regexValidEmail() {
+        return emailPattern.matcher("juan.rodriguez@rodriguez.org").matches();
+    }
+
+    @Benchmark
+    public boolean regexValidPassword() {
+        return passwordPattern.matcher("Password123!").matches();
+    }
+
+    @Benchmark
+    public boolean regexLongInvalidEmail() {
+        return emailPattern.matcher(LONG_EMAIL).matches();
+    }
+}
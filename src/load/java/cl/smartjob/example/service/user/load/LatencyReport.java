@@ -0,0 +1,115 @@
+package cl.smartjob.example.service.user.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and status counts of the steady state of a run, per kind of request. The
+ * corrected histogram measures from the time a request was due, so a stalled server is charged
+ * for the requests it delayed; the service histogram measures from the time it was actually sent.
+ */
+final class LatencyReport {
+
+    /** Status recorded for requests that got no response */
+    static final int NO_RESPONSE = -1;
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<RequestMix.Kind, Histogram> corrected = new EnumMap<>(RequestMix.Kind.class);
+    private final Map<RequestMix.Kind, Histogram> service = new EnumMap<>(RequestMix.Kind.class);
+    private final Map<RequestMix.Kind, Map<Integer, LongAdder>> statuses = new EnumMap<>(RequestMix.Kind.class);
+
+    LatencyReport() {
+        for (RequestMix.Kind kind : RequestMix.Kind.values()) {
+            corrected.put(kind, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            service.put(kind, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            statuses.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(RequestMix.Kind kind, int status, long dueNanos, long sentNanos, long completedNanos) {
+        corrected.get(kind).recordValue(Math.min(HIGHEST_MICROS, (completedNanos - dueNanos) / 1000));
+        service.get(kind).recordValue(Math.min(HIGHEST_MICROS, (completedNanos - sentNanos) / 1000));
+        statuses.get(kind).computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Write summary.txt and the percentile distributions of all requests, in milliseconds, to the
+     * report directory, and print the summary
+     */
+    void write(LoadOptions options, long sent, long elapsedNanos, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        Histogram allCorrected = merge(corrected);
+        Histogram allService = merge(service);
+        writeDistribution(allCorrected, reportDir.resolve("latency-corrected.hgrm"));
+        writeDistribution(allService, reportDir.resolve("latency-service.hgrm"));
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Target: %.1f req/s for %d s after a %d s ramp, %.0f%% duplicates, %.0f%% invalid%n",
+            options.rps(), options.durationSeconds(), options.rampSeconds(), options.duplicateRatio() * 100,
+            options.invalidRatio() * 100));
+        summary.append(String.format("Sent: %d requests in %.1f s, %d measured after the ramp (%.1f req/s)%n%n", sent,
+            elapsedNanos / 1e9, allCorrected.getTotalCount(),
+            allCorrected.getTotalCount() / (double) Math.max(1, options.durationSeconds())));
+
+        summary.append("Statuses (expected: new 201, duplicate 409, invalid 400; -1 = no response)\n");
+        for (RequestMix.Kind kind : RequestMix.Kind.values()) {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.get(kind).forEach((status, count) -> counts.put(status, count.sum()));
+            summary.append(String.format("  %-10s %s%n", kind.name().toLowerCase(), counts));
+        }
+
+        summary.append("\nLatency in ms, corrected for coordinated omission (service time in brackets)\n");
+        summary.append(String.format("  %-10s %8s", "kind", "count"));
+        for (double percentile : PERCENTILES) {
+            summary.append(String.format(" %18s", "p" + percentile));
+        }
+        summary.append(String.format(" %18s%n", "max"));
+        row(summary, "all", allCorrected, allService);
+        for (RequestMix.Kind kind : RequestMix.Kind.values()) {
+            row(summary, kind.name().toLowerCase(), corrected.get(kind), service.get(kind));
+        }
+
+        Files.writeString(reportDir.resolve("summary.txt"), summary, StandardCharsets.UTF_8);
+        System.out.println(summary);
+        System.out.println("Reports written to " + reportDir.toAbsolutePath());
+    }
+
+    private static void row(StringBuilder summary, String kind, Histogram corrected, Histogram service) {
+        summary.append(String.format("  %-10s %8d", kind, corrected.getTotalCount()));
+        for (double percentile : PERCENTILES) {
+            summary.append(String.format(" %18s", millis(corrected.getValueAtPercentile(percentile)) + " ["
+                + millis(service.getValueAtPercentile(percentile)) + "]"));
+        }
+        summary.append(String.format(" %18s%n", millis(corrected.getMaxValue()) + " [" + millis(service.getMaxValue()) + "]"));
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
+    private static Histogram merge(Map<RequestMix.Kind, Histogram> histograms) {
+        Histogram merged = new Histogram(HIGHEST_MICROS, 3);
+        histograms.values().forEach(merged::add);
+        return merged;
+    }
+
+    private static void writeDistribution(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
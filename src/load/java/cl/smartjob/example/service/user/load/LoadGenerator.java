@@ -0,0 +1,154 @@
+package cl.smartjob.example.service.user.load;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for POST /api/users/create. Requests are sent on a fixed schedule,
+ * each on its own virtual thread, whether or not earlier ones have completed, so a slow server
+ * sees the same arrival rate as real clients would produce. Unless a base URL is given, the
+ * application jar is started on a free port with the in-memory H2 database and stopped at the end.
+ */
+public final class LoadGenerator {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private LoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.fromSystemProperties();
+        Files.createDirectories(options.reportDir());
+
+        Process application = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            int port = freePort();
+            application = startApplication(options.jar(), port, options.reportDir().resolve("application.log"));
+            baseUrl = "http://localhost:" + port;
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+            awaitHealthy(client, baseUrl, application);
+            run(options, client, URI.create(baseUrl + "/api/users/create"));
+        } finally {
+            if (application != null) {
+                application.destroy();
+                application.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void run(LoadOptions options, HttpClient client, URI uri) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        RequestMix mix = new RequestMix(options.duplicateRatio(), options.invalidRatio());
+        LatencyReport report = new LatencyReport();
+        long start = System.nanoTime();
+        long steadyStart = start + options.rampNanos();
+        long sent = 0;
+
+        System.out.printf("Sending to %s for %d s%n", uri, options.rampSeconds() + options.durationSeconds());
+        for (long n = 0; ; n++) {
+            long due = start + options.offsetNanos(n);
+            if (due - start >= options.totalNanos()) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            RequestMix.Payload payload = mix.next();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload.body()))
+                .build();
+            boolean measured = due - steadyStart >= 0;
+            executor.execute(() -> send(client, request, payload.kind(), due, measured ? report : null));
+            sent++;
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 10, TimeUnit.SECONDS);
+        report.write(options, sent, System.nanoTime() - start, options.reportDir());
+    }
+
+    /**
+     * Send one request and record it, unless it was due during the ramp
+     */
+    private static void send(HttpClient client, HttpRequest request, RequestMix.Kind kind, long due,
+        LatencyReport report) {
+        long sentAt = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            status = LatencyReport.NO_RESPONSE;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (report != null) {
+            report.record(kind, status, due, sentAt, System.nanoTime());
+        }
+    }
+
+    private static Process startApplication(Path jar, int port, Path log) throws IOException {
+        if (jar == null || !Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Application jar not found: " + jar);
+        }
+        System.out.printf("Starting %s on port %d, log in %s%n", jar.getFileName(), port, log);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        // All the load comes from one address, which the rate limiter would otherwise throttle
+        return new ProcessBuilder(java, "-jar", jar.toString(), "--server.port=" + port, "--spring.jpa.show-sql=false",
+            "--rate-limit.enabled=false")
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+    }
+
+    private static void awaitHealthy(HttpClient client, String baseUrl, Process application)
+        throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (application != null && !application.isAlive()) {
+                throw new IllegalStateException("The application exited with code " + application.exitValue());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("The application did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package cl.smartjob.example.service.user.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Options of a load test run, read from the load.* system properties set by the loadTest task
+ *
+ * @param rps target requests per second once the ramp is over
+ * @param durationSeconds time at the target rate, after the ramp
+ * @param rampSeconds time to ramp linearly from 0 to the target rate
+ * @param duplicateRatio share of requests that reuse an email already sent
+ * @param invalidRatio share of requests with an invalid email or password
+ * @param baseUrl URL of a running instance, or null to start the application jar
+ * @param jar application jar to start when no base URL is given
+ * @param reportDir directory for the reports and the application log
+ */
+record LoadOptions(double rps, int durationSeconds, int rampSeconds, double duplicateRatio, double invalidRatio,
+    String baseUrl, Path jar, Path reportDir) {
+
+    LoadOptions {
+        if (rps <= 0 || durationSeconds <= 0 || rampSeconds < 0) {
+            throw new IllegalArgumentException("The rate and duration must be positive and the ramp not negative");
+        }
+        if (duplicateRatio < 0 || invalidRatio < 0 || duplicateRatio + invalidRatio > 1) {
+            throw new IllegalArgumentException("The duplicate and invalid ratios must add up to at most 1");
+        }
+    }
+
+    static LoadOptions fromSystemProperties() {
+        String jar = System.getProperty("load.jar");
+        return new LoadOptions(
+            Double.parseDouble(System.getProperty("load.rps", "20")),
+            Integer.parseInt(System.getProperty("load.duration", "60")),
+            Integer.parseInt(System.getProperty("load.ramp", "10")),
+            Double.parseDouble(System.getProperty("load.duplicateRatio", "0.1")),
+            Double.parseDouble(System.getProperty("load.invalidRatio", "0.05")),
+            System.getProperty("load.baseUrl"),
+            jar == null ? null : Paths.get(jar),
+            Paths.get(System.getProperty("load.reportDir", "build/reports/load")));
+    }
+
+    /**
+     * Offset from the start of the run at which the n-th request is due. The rate grows linearly
+     * during the ramp, so n requests are due at sqrt(2 * ramp * n / rps), and at a constant rate
+     * after it.
+     */
+    long offsetNanos(long n) {
+        double rampRequests = rps * rampSeconds / 2;
+        double seconds = n < rampRequests
+            ? Math.sqrt(2 * rampSeconds * n / rps)
+            : rampSeconds + (n - rampRequests) / rps;
+        return (long) (seconds * 1_000_000_000L);
+    }
+
+    long rampNanos() {
+        return rampSeconds * 1_000_000_000L;
+    }
+
+    long totalNanos() {
+        return (rampSeconds + (long) durationSeconds) * 1_000_000_000L;
+    }
+}
@@ -0,0 +1,62 @@
+package cl.smartjob.example.service.user.load;
+
+import java.util.Random;
+
+/**
+ * Generates registration payloads: new users, duplicates of emails already sent, and invalid
+ * requests alternating a malformed email and a weak password. Not thread-safe, the scheduler is
+ * its only caller.
+ */
+final class RequestMix {
+
+    /**
+     * Kind of registration request, with the status the service should answer
+     */
+    enum Kind {
+        NEW(201), DUPLICATE(409), INVALID(400);
+
+        final int expectedStatus;
+
+        Kind(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    record Payload(Kind kind, String body) {}
+
+    private static final String VALID_PASSWORD = "Password123!";
+
+    private final double duplicateRatio;
+    private final double invalidRatio;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final Random random = new Random(42);
+    private long newUsers;
+    private long invalidRequests;
+
+    RequestMix(double duplicateRatio, double invalidRatio) {
+        this.duplicateRatio = duplicateRatio;
+        this.invalidRatio = invalidRatio;
+    }
+
+    Payload next() {
+        double draw = random.nextDouble();
+        if (draw < invalidRatio) {
+            boolean badEmail = invalidRequests++ % 2 == 0;
+            return new Payload(Kind.INVALID, body(badEmail ? "load-" + runId + "@invalid" : email(newUsers),
+                badEmail ? VALID_PASSWORD : "weak"));
+        }
+        if (draw < invalidRatio + duplicateRatio && newUsers > 0) {
+            return new Payload(Kind.DUPLICATE, body(email((long) (random.nextDouble() * newUsers)), VALID_PASSWORD));
+        }
+        return new Payload(Kind.NEW, body(email(newUsers++), VALID_PASSWORD));
+    }
+
+    private String email(long user) {
+        return "load-" + runId + "-" + user + "@smartjob.cl";
+    }
+
+    private static String body(String email, String password) {
+        return "{\"name\":\"Load Test\",\"email\":\"" + email + "\",\"password\":\"" + password
+            + "\",\"phones\":[{\"number\":\"1234567\",\"citycode\":\"1\",\"contrycode\":\"57\"}]}";
+    }
+}
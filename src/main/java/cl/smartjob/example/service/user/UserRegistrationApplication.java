@@ -2,11 +2,15 @@ package cl.smartjob.example.service.user;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import cl.smartjob.example.service.user.config.NativeHints;
 
 /**
  * Main application class for User Registration API
  */
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class UserRegistrationApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,46 @@
+package cl.smartjob.example.service.user.actuator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+import cl.smartjob.example.service.user.service.EmailIndexService;
+
+/**
+ * Actuator endpoint to inspect and rebuild the in-memory email index.
+ * GET /actuator/emailindex returns its statistics, POST rebuilds it from the database.
+ * 
+ * @author Carlos Icaza
+ */
+@Component
+@Endpoint(id = "emailindex")
+public class EmailIndexEndpoint {
+
+    @Autowired
+    private EmailIndexService emailIndexService;
+
+    /**
+     * Get the email index statistics
+     * 
+     * @return index statistics
+     */
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return emailIndexService.stats();
+    }
+
+    /**
+     * Rebuild the email index from the users table
+     * 
+     * @return index statistics after the rebuild
+     */
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        emailIndexService.rebuild();
+        return emailIndexService.stats();
+    }
+}
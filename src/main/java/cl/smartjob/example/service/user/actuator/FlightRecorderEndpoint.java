@@ -0,0 +1,97 @@
+package cl.smartjob.example.service.user.actuator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * Actuator endpoint to dump the running flight recordings. GET /actuator/jfr lists the recordings,
+ * POST writes a snapshot of all of them to the dump directory, so a recording started with
+ * config/flight-recorder/profile-manual-update.jfc can be collected without restarting.
+ *
+ * @author Carlos Icaza
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${flight-recorder.dump-directory}")
+    private String dumpDirectory;
+
+    /**
+     * List the recordings of this JVM
+     *
+     * @return one entry per recording
+     */
+    @ReadOperation
+    public List<Map<String, Object>> recordings() {
+        if (!FlightRecorder.isAvailable()) {
+            return List.of();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+            .map(FlightRecorderEndpoint::describe)
+            .toList();
+    }
+
+    /**
+     * Dump a snapshot of the running recordings
+     *
+     * @return the dump file and its size, or why nothing was dumped
+     */
+    @WriteOperation
+    public Map<String, Object> dump() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!FlightRecorder.isAvailable()) {
+            result.put("dumped", false);
+            result.put("reason", "Flight Recorder is not available in this JVM");
+            return result;
+        }
+
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                result.put("dumped", false);
+                result.put("reason", "No recording is running");
+                return result;
+            }
+            Path directory = Files.createDirectories(Paths.get(dumpDirectory));
+            Path file = directory.resolve("recording-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+            snapshot.dump(file);
+            result.put("dumped", true);
+            result.put("file", file.toAbsolutePath().toString());
+            result.put("size", Files.size(file));
+            return result;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", recording.getId());
+        description.put("name", recording.getName());
+        description.put("state", recording.getState());
+        description.put("startTime", recording.getStartTime());
+        description.put("size", recording.getSize());
+        description.put("maxAge", recording.getMaxAge());
+        description.put("destination", recording.getDestination());
+        return description;
+    }
+}
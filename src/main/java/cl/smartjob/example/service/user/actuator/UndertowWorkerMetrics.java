@@ -0,0 +1,69 @@
+package cl.smartjob.example.service.user.actuator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.xnio.management.XnioWorkerMXBean;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Gauges for the XNIO workers of Undertow. Spring Boot does not bind Undertow metrics, but XNIO
+ * registers an MXBean per worker once the server is started, which is read here. The busy thread
+ * count is left out because the default XNIO executor reports it as -1.
+ *
+ * @author Carlos Icaza
+ */
+@Component
+public class UndertowWorkerMetrics {
+
+    private static final String WORKER_QUERY = "org.xnio:type=Xnio,*";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Register the gauges of every worker once the web server is running
+     *
+     * @param event web server initialized event
+     * @throws MalformedObjectNameException never, the query is a constant
+     */
+    @EventListener(WebServerInitializedEvent.class)
+    public void bindWorkers(WebServerInitializedEvent event) throws MalformedObjectNameException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : server.queryNames(new ObjectName(WORKER_QUERY), null)) {
+            // Listening channels are registered under the worker with an address key
+            if (name.getKeyProperty("worker") == null || name.getKeyProperty("address") != null) {
+                continue;
+            }
+            // Nothing else references the proxy, so the gauges must hold it strongly
+            XnioWorkerMXBean worker = JMX.newMXBeanProxy(server, name, XnioWorkerMXBean.class);
+            String workerName = ObjectName.unquote(name.getKeyProperty("worker"));
+
+            Gauge.builder("undertow.worker.queue.size", worker, XnioWorkerMXBean::getWorkerQueueSize)
+                .tag("worker", workerName)
+                .strongReference(true)
+                .description("Tasks waiting for a worker thread")
+                .register(meterRegistry);
+            Gauge.builder("undertow.worker.threads.max", worker, XnioWorkerMXBean::getMaxWorkerPoolSize)
+                .tag("worker", workerName)
+                .strongReference(true)
+                .description("Maximum worker threads")
+                .register(meterRegistry);
+            Gauge.builder("undertow.io.threads", worker, XnioWorkerMXBean::getIoThreadCount)
+                .tag("worker", workerName)
+                .strongReference(true)
+                .description("I/O threads")
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cl.smartjob.example.service.user.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import cl.smartjob.example.service.user.util.ContentFormats;
+
+/**
+ * ContentFormatConfig class to set up the binary formats of the API. The Smile and CBOR mappers
+ * come from the same builder as the JSON one, so dates and field names are encoded alike in every
+ * format. Spring Boot places their message converters after the JSON one, which stays the default
+ * for clients that accept anything.
+ */
+@Configuration
+public class ContentFormatConfig {
+
+    /**
+     * Formats of the API
+     * 
+     * @param objectMapper mapper of the JSON format
+     * @param builder builder with the Spring Boot Jackson settings
+     * @return the formats
+     */
+    @Bean
+    public ContentFormats contentFormats(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        return new ContentFormats(objectMapper, builder.factory(new SmileFactory()).build(),
+            builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile message converter
+     * 
+     * @param contentFormats formats of the API
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ContentFormats contentFormats) {
+        return new MappingJackson2SmileHttpMessageConverter(contentFormats.mapper(ContentFormats.SMILE));
+    }
+
+    /**
+     * CBOR message converter
+     * 
+     * @param contentFormats formats of the API
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ContentFormats contentFormats) {
+        return new MappingJackson2CborHttpMessageConverter(contentFormats.mapper(MediaType.APPLICATION_CBOR));
+    }
+}
@@ -0,0 +1,27 @@
+package cl.smartjob.example.service.user.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * LoggingConfig class to set up the SQL statement log. Its level, like that of the registration
+ * log, can be changed at runtime through the loggers actuator endpoint.
+ */
+@Configuration
+public class LoggingConfig {
+
+    /**
+     * Pass every prepared statement through the sampled SQL log
+     * 
+     * @param sampleRate share of the statements logged while the log is on
+     * @return customizer of the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementLogCustomizer(@Value("${sql-log.sample-rate}") double sampleRate) {
+        SqlStatementLog sqlStatementLog = new SqlStatementLog(sampleRate);
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementLog);
+    }
+}
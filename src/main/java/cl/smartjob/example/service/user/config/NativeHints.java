@@ -0,0 +1,41 @@
+package cl.smartjob.example.service.user.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.ErrorResponseDTO;
+import cl.smartjob.example.service.user.dto.ImportEventDTO;
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.RegistrationStatusDTO;
+import cl.smartjob.example.service.user.dto.UserRegisteredEventDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.entity.OutboxEvent;
+import cl.smartjob.example.service.user.entity.Phone;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.entity.UserIdGenerator;
+
+/**
+ * Reachability metadata of the native image that Spring AOT does not infer from the bean
+ * definitions. Spring registers the controller signatures and the JPA managed types; this adds
+ * every member of the entities and the id generator Hibernate instantiates, and the Jackson
+ * binding of the DTOs written outside controllers, such as pre-serialized error bodies, outbox
+ * event payloads and streamed imports. The Lombok accessors and builders are plain methods of
+ * those classes and are covered by the same hints. BCrypt needs none.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : new Class<?>[] { User.class, Phone.class, OutboxEvent.class, UserIdGenerator.class }) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), UserRequestDTO.class,
+            UserResponseDTO.class, PhoneDTO.class, ErrorResponseDTO.class, BatchItemResultDTO.class,
+            RegistrationStatusDTO.class, ImportEventDTO.class, UserRegisteredEventDTO.class);
+    }
+}
@@ -0,0 +1,307 @@
+package cl.smartjob.example.service.user.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import cl.smartjob.example.service.user.config.RateLimitProperties.Limit;
+import cl.smartjob.example.service.user.config.RateLimitProperties.Route;
+import cl.smartjob.example.service.user.dto.ErrorResponseDTO;
+import cl.smartjob.example.service.user.util.ContentFormats;
+import cl.smartjob.example.service.user.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter that applies the configured rate limits before a request reaches the security filter
+ * chain. Each limited route has a token bucket per client IP address and, for single
+ * registrations, one per email domain, taken from the body without binding it. A request over a
+ * limit gets a 429 with a Retry-After and a pre-serialized body, in the format the request accepts.
+ * The body is read in the format of its Content-Type, so a binary one cannot skip the email
+ * domain limit; neither can a body over max-body-size, rejected with a 413, nor one repeating the
+ * email field, which the binding would take the last of, rejected with a 400. Routes are matched on
+ * the decoded path, so percent-encoding it does not skip the limits. Requests are keyed
+ * by the remote address as the server sees it; behind a proxy, forwarded headers have to be
+ * resolved first.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String EMAIL_FIELD = "email";
+    private static final String BODY_TOO_LARGE_MESSAGE = "El cuerpo de la solicitud excede el tamaño máximo";
+    private static final String REPEATED_EMAIL_MESSAGE = "El campo email no puede repetirse";
+
+    // Returned for a body with more than one email field; no domain contains an @
+    private static final String REPEATED_EMAIL = "@";
+
+    private final Map<String, RouteLimits> routes = new HashMap<>();
+    private final ContentFormats contentFormats;
+    private final int maxBodySize;
+    private final Map<MediaType, byte[]> rejectedBodies;
+    private final Map<MediaType, byte[]> tooLargeBodies;
+    private final Map<MediaType, byte[]> repeatedEmailBodies;
+
+    /**
+     * Limiters and rejection counters of one route
+     */
+    private record RouteLimits(String method, TokenBucketLimiter ip, TokenBucketLimiter emailDomain,
+        Counter ipRejected, Counter emailDomainRejected) {}
+
+    public RateLimitFilter(RateLimitProperties properties, ContentFormats contentFormats, MeterRegistry meterRegistry)
+        throws IOException {
+        this.contentFormats = contentFormats;
+        this.maxBodySize = Math.toIntExact(properties.maxBodySize().toBytes());
+        this.rejectedBodies = errorBodies(contentFormats, properties.message());
+        this.tooLargeBodies = errorBodies(contentFormats, BODY_TOO_LARGE_MESSAGE);
+        this.repeatedEmailBodies = errorBodies(contentFormats, REPEATED_EMAIL_MESSAGE);
+        for (Route route : properties.routes()) {
+            TokenBucketLimiter ip = limiter(properties, route, route.ip(), "ip", meterRegistry);
+            TokenBucketLimiter emailDomain = limiter(properties, route, route.emailDomain(), "email_domain",
+                meterRegistry);
+            RouteLimits limits = new RouteLimits(route.method(), ip, emailDomain,
+                rejectedCounter(route, "ip", meterRegistry), rejectedCounter(route, "email_domain", meterRegistry));
+            if (routes.putIfAbsent(route.path(), limits) != null) {
+                throw new IllegalArgumentException("Rate limit route configured twice: " + route.path());
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        RouteLimits route = route(request);
+        return route == null || !route.method().equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        RouteLimits route = route(request);
+        if (route.ip() != null) {
+            long wait = route.ip().tryAcquire(request.getRemoteAddr());
+            if (wait > 0) {
+                route.ipRejected().increment();
+                reject(request, response, wait);
+                return;
+            }
+        }
+        if (route.emailDomain() != null) {
+            // A body too large to look for the email in would not be limited by its domain
+            if (request.getContentLengthLong() > maxBodySize) {
+                error(request, response, HttpStatus.PAYLOAD_TOO_LARGE, tooLargeBodies);
+                return;
+            }
+            BufferedBodyRequest buffered = new BufferedBodyRequest(request, maxBodySize);
+            if (!buffered.complete()) {
+                error(request, response, HttpStatus.PAYLOAD_TOO_LARGE, tooLargeBodies);
+                return;
+            }
+            request = buffered;
+            String domain = emailDomain(buffered.body(), request.getContentType());
+            if (REPEATED_EMAIL.equals(domain)) {
+                error(request, response, HttpStatus.BAD_REQUEST, repeatedEmailBodies);
+                return;
+            }
+            // Without a readable email the request is left for validation to reject
+            if (domain != null) {
+                long wait = route.emailDomain().tryAcquire(domain);
+                if (wait > 0) {
+                    route.emailDomainRejected().increment();
+                    reject(request, response, wait);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Limits of the route of a request, looked up by its decoded and normalized path, the one the
+     * servlet container and Spring MVC map it by, so an encoded path cannot skip them
+     */
+    private RouteLimits route(HttpServletRequest request) {
+        return routes.get(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+        throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+            String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        error(request, response, HttpStatus.TOO_MANY_REQUESTS, rejectedBodies);
+    }
+
+    private void error(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+        Map<MediaType, byte[]> bodies) throws IOException {
+        MediaType format = contentFormats.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        byte[] body = bodies.get(format);
+        response.setStatus(status.value());
+        response.setContentType(format.toString());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Find the top level email field of a body and return its domain, lower-cased, or
+     * REPEATED_EMAIL if the field appears more than once
+     */
+    private String emailDomain(byte[] body, String contentType) {
+        try (JsonParser parser = contentFormats.factory(contentType).createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String address = null;
+            boolean found = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean email = EMAIL_FIELD.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (email) {
+                    if (found) {
+                        return REPEATED_EMAIL;
+                    }
+                    found = true;
+                    address = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            int at = address == null ? -1 : address.lastIndexOf('@');
+            return at < 0 ? null : address.substring(at + 1).toLowerCase(Locale.ROOT);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static Map<MediaType, byte[]> errorBodies(ContentFormats contentFormats, String message)
+        throws IOException {
+        Map<MediaType, byte[]> bodies = new LinkedHashMap<>();
+        for (MediaType format : contentFormats.mediaTypes()) {
+            bodies.put(format, contentFormats.mapper(format).writeValueAsBytes(new ErrorResponseDTO(message)));
+        }
+        return bodies;
+    }
+
+    private static TokenBucketLimiter limiter(RateLimitProperties properties, Route route, Limit limit, String key,
+        MeterRegistry meterRegistry) {
+        if (limit == null) {
+            return null;
+        }
+        TokenBucketLimiter limiter = new TokenBucketLimiter(limit.capacity(), limit.refillPerSecond(),
+            properties.maximumKeys(), properties.idleTimeout());
+        Gauge.builder("rate.limit.keys", limiter, TokenBucketLimiter::size)
+            .description("Clients tracked by a rate limit")
+            .tag("route", route.path())
+            .tag("key", key)
+            .register(meterRegistry);
+        return limiter;
+    }
+
+    private static Counter rejectedCounter(Route route, String key, MeterRegistry meterRegistry) {
+        return Counter.builder("rate.limit.rejected")
+            .description("Requests rejected by a rate limit")
+            .tag("route", route.path())
+            .tag("key", key)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Request whose body was read ahead, up to a limit, and is replayed to the application. A body
+     * over the limit is not complete and the request is not passed on.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final boolean complete;
+        private final ServletInputStream inputStream;
+
+        BufferedBodyRequest(HttpServletRequest request, int maxBodySize) throws IOException {
+            super(request);
+            ServletInputStream original = request.getInputStream();
+            byte[] read = original.readNBytes(maxBodySize + 1);
+            this.complete = read.length <= maxBodySize;
+            this.body = read;
+            this.inputStream = new ReplayInputStream(new ByteArrayInputStream(read));
+        }
+
+        byte[] body() {
+            return body;
+        }
+
+        boolean complete() {
+            return complete;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() == null ? "UTF-8" : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(inputStream, encoding));
+        }
+    }
+
+    /**
+     * Blocking servlet stream over an already available input
+     */
+    private static final class ReplayInputStream extends ServletInputStream {
+
+        private final InputStream input;
+        private boolean finished;
+
+        ReplayInputStream(InputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = input.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = input.read(buffer, offset, length);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Buffered requests are read blocking");
+        }
+    }
+}
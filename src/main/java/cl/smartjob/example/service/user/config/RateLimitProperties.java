@@ -0,0 +1,42 @@
+package cl.smartjob.example.service.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Rate limits of the registration endpoints, read from rate-limit in application.yml. Bound as a
+ * whole since each route carries its own limits.
+ * 
+ * @param enabled whether the filter is registered
+ * @param maximumKeys buckets kept per limit
+ * @param idleTimeout time after which the bucket of an idle client is evicted
+ * @param maxBodySize largest body read to find the email of a request limited by email domain;
+ *        larger ones are rejected
+ * @param message error message of a rejected request
+ * @param routes the limited routes
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(boolean enabled, long maximumKeys, Duration idleTimeout, DataSize maxBodySize,
+    String message, List<Route> routes) {
+
+    /**
+     * Limits of one route. A limit left out is not applied.
+     * 
+     * @param method HTTP method of the route
+     * @param path exact request path of the route
+     * @param ip limit per client IP address
+     * @param emailDomain limit per domain of the email in the request body
+     */
+    public record Route(String method, String path, Limit ip, Limit emailDomain) {}
+
+    /**
+     * A token bucket
+     * 
+     * @param capacity largest burst of requests
+     * @param refillPerSecond sustained requests per second
+     */
+    public record Limit(int capacity, double refillPerSecond) {}
+}
@@ -1,24 +1,56 @@
 package cl.smartjob.example.service.user.config;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.io.IOException;
+
+import cl.smartjob.example.service.user.util.ContentFormats;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * SecurityConfiguration class to set up security parameters for the application. Disables CORS,
- * CSRF, and frame options for simplicity in this example. Provides a BCryptPasswordEncoder bean for
- * password hashing.
+ * CSRF, and frame options for simplicity in this example. The API and the actuator read operations
+ * are open; actuator write operations, which rebuild indexes, write files or change log levels,
+ * need HTTP Basic credentials of a user with the ACTUATOR role, the event log, which carries the
+ * name and email of every user, one with the EVENTS role, and the user listing, meant for admin
+ * tooling, one with the ADMIN role. Provides a BCryptPasswordEncoder
+ * bean for password hashing, and registers the rate limit filter just ahead of the security filter
+ * chain.
  * 
  * @author Carlos Icaza
  */
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
+    /** Role required by the actuator write operations */
+    public static final String ACTUATOR_ROLE = "ACTUATOR";
+
+    /** Role required to read the event log */
+    public static final String EVENTS_ROLE = "EVENTS";
+
+    /** Role required to list the users */
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private static final Logger LOGGER = LogManager.getLogger(SecurityConfig.class);
+
     /**
      * Configure security filter chain
      * 
@@ -31,7 +63,15 @@ public class SecurityConfig {
         http
             .cors(cors -> cors.disable())
             .csrf(csrf -> csrf.disable())
-            .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable()));
+            .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable()))
+            .authorizeHttpRequests(authorize -> authorize
+                .requestMatchers(HttpMethod.POST, "/actuator/**").hasRole(ACTUATOR_ROLE)
+                .requestMatchers(HttpMethod.PUT, "/actuator/**").hasRole(ACTUATOR_ROLE)
+                .requestMatchers(HttpMethod.DELETE, "/actuator/**").hasRole(ACTUATOR_ROLE)
+                .requestMatchers("/api/events/**").hasRole(EVENTS_ROLE)
+                .requestMatchers(HttpMethod.GET, "/api/users").hasRole(ADMIN_ROLE)
+                .anyRequest().permitAll())
+            .httpBasic(Customizer.withDefaults());
         return http.build();
     }
 
@@ -44,4 +84,45 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
+
+    /**
+     * Operator user of the actuator write operations, from spring.security.user. Its password is
+     * given in plain text and hashed here with BCrypt, the scheme the password encoder checks it
+     * with; if none is given, a random one is generated and logged at startup
+     * 
+     * @param properties security properties from application.yml
+     * @return the user details service
+     */
+    @Bean
+    public UserDetailsService userDetailsService(SecurityProperties properties) {
+        SecurityProperties.User user = properties.getUser();
+        if (user.isPasswordGenerated()) {
+            LOGGER.warn("Using generated password for user {}: {}", user.getName(), user.getPassword());
+        }
+        return new InMemoryUserDetailsManager(User.withUsername(user.getName())
+            .password(new BCryptPasswordEncoder().encode(user.getPassword()))
+            .roles(user.getRoles().toArray(String[]::new))
+            .build());
+    }
+
+    /**
+     * Rate limit filter, on the configured routes only and before the security filter chain, so a
+     * rejected request costs as little as possible
+     * 
+     * @param properties rate limits from application.yml
+     * @param contentFormats formats of the error body
+     * @param meterRegistry registry of the rate limit metrics
+     * @return the filter registration
+     * @throws IOException if the error body cannot be serialized
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+        ContentFormats contentFormats, MeterRegistry meterRegistry) throws IOException {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+            new RateLimitFilter(properties, contentFormats, meterRegistry));
+        registration.setEnabled(properties.enabled());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        properties.routes().forEach(route -> registration.addUrlPatterns(route.path()));
+        return registration;
+    }
 }
@@ -0,0 +1,84 @@
+package cl.smartjob.example.service.user.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sharding configuration. When shards are listed the auto-configured datasource is replaced by a
+ * routing one with a connection pool per shard, named shard-N in the pool metrics, and a single
+ * EntityManagerFactory, transaction manager and set of repositories works over all of them.
+ * 
+ * Each session is tagged with its shard as the Hibernate tenant identifier. No entity is tenant
+ * scoped; the tag keeps the blocks of ids that the sequence optimizers hold in memory apart, as
+ * each block comes from the sequence of one shard and must only be used there.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * Routing datasource over the listed shards
+     * 
+     * @param shardingProperties the shard databases
+     * @param driverClassName JDBC driver of the shards
+     * @param meterRegistry registry of the pool metrics
+     * @return the routing datasource
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sharding.shards[0].url")
+    public DataSource dataSource(ShardingProperties shardingProperties,
+        @Value("${spring.datasource.driverClassName}") String driverClassName, MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>(shardingProperties.shardCount());
+        for (ShardingProperties.Shard shard : shardingProperties.shards()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + pools.size());
+            pool.setDriverClassName(driverClassName);
+            pool.setJdbcUrl(shard.url());
+            pool.setUsername(shard.username());
+            pool.setPassword(shard.password());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(pool);
+        }
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource(pools);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * Tag each session with the shard selected when it is opened
+     * 
+     * @return customizer of the Hibernate properties
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sharding.shards[0].url")
+    public HibernatePropertiesCustomizer shardTenantCustomizer() {
+        CurrentTenantIdentifierResolver<String> resolver = new CurrentTenantIdentifierResolver<>() {
+            @Override
+            public String resolveCurrentTenantIdentifier() {
+                Integer shard = ShardRoutingDataSource.currentShard();
+                return "shard-" + (shard == null ? 0 : shard);
+            }
+
+            @Override
+            public boolean validateExistingCurrentSessions() {
+                return false;
+            }
+        };
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, resolver);
+    }
+}
@@ -0,0 +1,33 @@
+package cl.smartjob.example.service.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Databases the users are spread over, read from sharding in application.yml. With no shards
+ * listed every user is kept in the configured datasource.
+ * 
+ * @param shards the shard databases, in shard number order
+ */
+@ConfigurationProperties(prefix = "sharding")
+public record ShardingProperties(List<Shard> shards) {
+
+    /**
+     * Connection settings of one shard
+     * 
+     * @param url JDBC url
+     * @param username database user
+     * @param password database password
+     */
+    public record Shard(String url, String username, String password) {}
+
+    /**
+     * Get the number of shards
+     * 
+     * @return the shard count, 1 when none are listed
+     */
+    public int shardCount() {
+        return shards == null || shards.isEmpty() ? 1 : shards.size();
+    }
+}
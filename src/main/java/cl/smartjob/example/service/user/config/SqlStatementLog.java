@@ -0,0 +1,37 @@
+package cl.smartjob.example.service.user.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled log of the SQL statements Hibernate prepares, in place of show-sql, which prints every
+ * statement to the standard output on the request thread. Statements go to the cl.smartjob.sql
+ * logger at DEBUG, so while it is at a higher level, the default, a statement costs a level
+ * check. Statements carry placeholders, not the bound values.
+ */
+public class SqlStatementLog implements StatementInspector {
+
+    private static final Logger LOGGER = LogManager.getLogger("cl.smartjob.sql");
+
+    private final double sampleRate;
+
+    /**
+     * Create the log
+     * 
+     * @param sampleRate share of the statements logged, 0 to 1
+     */
+    public SqlStatementLog(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (LOGGER.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            LOGGER.debug("{}", sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,47 @@
+package cl.smartjob.example.service.user.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import cl.smartjob.example.service.user.service.EventLogService;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * EventController class to let consumers read the event log.
+ * Consumers tail the log by offset, passing the returned next offset to the following request.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    @Autowired
+    private EventLogService eventLogService;
+
+    /**
+     * Read events starting at an offset. With a wait, a request at the end of the log is held
+     * until an event is appended or the wait is over.
+     * 
+     * @param offset offset of the first event to read
+     * @param limit maximum number of events
+     * @param wait longest time to wait for an event in seconds, zero to return at once
+     * @param response HTTP response the events are written to
+     * @throws IOException if writing the events fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @GetMapping
+    public void readEvents(@RequestParam(defaultValue = "0") long offset,
+        @RequestParam(defaultValue = "100") int limit, @RequestParam(defaultValue = "0") long wait,
+        HttpServletResponse response) throws IOException, InterruptedException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        eventLogService.writeEvents(offset, limit, Duration.ofSeconds(wait), response.getOutputStream());
+    }
+}
@@ -1,21 +1,47 @@
 package cl.smartjob.example.service.user.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.RegistrationStatusDTO;
 import cl.smartjob.example.service.user.dto.UserRequestDTO;
 import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.service.IdempotencyService;
+import cl.smartjob.example.service.user.service.RegistrationWriter;
+import cl.smartjob.example.service.user.service.UserImportService;
+import cl.smartjob.example.service.user.service.UserQueryService;
+import cl.smartjob.example.service.user.service.UserQueryService.CachedUser;
 import cl.smartjob.example.service.user.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
  * UserController class to handle user-related HTTP requests.
- * Provides an endpoint for user registration.
+ * Provides endpoints for single, asynchronous, bulk and streamed user registration, and for user
+ * lookups and listing. Registrations and lookups read and write JSON, Smile or CBOR by
+ * Content-Type and Accept, JSON by default; the streamed import and the listing are JSON only.
  * 
  * @author Carlos Icaza
  */
@@ -23,19 +49,164 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String BATCH_TOO_LARGE_MESSAGE = "La solicitud excede el máximo de %d usuarios";
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserQueryService userQueryService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private RegistrationWriter registrationWriter;
+
+    @Value("${registration.batch.max-items}")
+    private int batchMaxItems;
+
     /**
-     * Register a new user
+     * Register a new user. A retry carrying the Idempotency-Key of a successful registration gets
+     * the original response back instead of registering again.
      * 
+     * @param idempotencyKey client generated key of the registration, optional
      * @param userRequestDTO user registration data
+     * @param principal the authenticated client, null if anonymous
      * @return registered user response
      */
     @PostMapping("/create")
     public ResponseEntity<UserResponseDTO>
-        registerUser(@Valid @RequestBody UserRequestDTO userRequestDTO) {
-        UserResponseDTO userResponse = userService.registerUser(userRequestDTO);
-        return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+        registerUser(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody UserRequestDTO userRequestDTO, Principal principal) {
+        return idempotencyService.execute("create", clientOf(principal), idempotencyKey, userRequestDTO, () -> {
+            UserResponseDTO userResponse = userService.registerUser(userRequestDTO);
+            return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+        });
+    }
+
+    /**
+     * Register a new user asynchronously. The registration is acknowledged once validated and
+     * hashed, and persisted shortly after; its state can be polled at the returned location.
+     * 
+     * @param idempotencyKey client generated key of the registration, optional
+     * @param userRequestDTO user registration data
+     * @param principal the authenticated client, null if anonymous
+     * @return the id assigned to the user, pending
+     */
+    @PostMapping("/async")
+    public ResponseEntity<RegistrationStatusDTO>
+        registerUserAsync(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody UserRequestDTO userRequestDTO, Principal principal) {
+        return idempotencyService.execute("async", clientOf(principal), idempotencyKey, userRequestDTO, () -> {
+            RegistrationStatusDTO status = userService.registerUserAsync(userRequestDTO);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/users/async/" + status.getId()))
+                .body(status);
+        });
+    }
+
+    /**
+     * Get the state of an asynchronous registration
+     * 
+     * @param id the id returned when the registration was accepted
+     * @return pending, created, or failed with the status and message the registration got
+     */
+    @GetMapping("/async/{id}")
+    public ResponseEntity<RegistrationStatusDTO> getRegistrationStatus(@PathVariable UUID id) {
+        return new ResponseEntity<>(registrationWriter.status(id), HttpStatus.OK);
+    }
+
+    /**
+     * Register a list of users in bulk. Each item gets its own result, so a failing item does not
+     * abort the rest of the request. Larger imports go through the streamed import.
+     * 
+     * @param userRequestDTOs users registration data
+     * @return one result per item, in request order
+     * @throws ValidationException if the list has more than the configured maximum of items
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResultDTO>>
+        registerUsers(@RequestBody List<UserRequestDTO> userRequestDTOs) {
+        if (userRequestDTOs.size() > batchMaxItems) {
+            throw new ValidationException(BATCH_TOO_LARGE_MESSAGE.formatted(batchMaxItems));
+        }
+        List<BatchItemResultDTO> results = userService.registerUsers(userRequestDTOs);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Import users from a newline-delimited JSON body. The response is an NDJSON stream of per-line
+     * errors and progress events, written while the input is still being read.
+     * 
+     * @param input NDJSON body, one user registration per line
+     * @param response HTTP response the report is streamed to
+     * @throws IOException if reading the body or writing the report fails
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsers(InputStream input, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userImportService.importUsers(input, response.getOutputStream());
+    }
+
+    /**
+     * List users in creation order, one page per request. The page is written to the response as
+     * it is read; pass the returned next cursor as after to get the following page.
+     * 
+     * @param after cursor of the previous page, absent for the first one
+     * @param size maximum number of users in the page
+     * @param response HTTP response the page is written to
+     * @throws IOException if writing the page fails
+     */
+    @GetMapping
+    public void listUsers(@RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "100") int size, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        userQueryService.writePage(after, size, response.getOutputStream());
+    }
+
+    /**
+     * Get a user by id. The response carries an ETag of the user version, and a request with a
+     * matching If-None-Match gets a 304 without a body.
+     * 
+     * @param id the user id
+     * @return the user
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<UserResponseDTO> getUser(@PathVariable UUID id) {
+        return conditional(userQueryService.findById(id));
+    }
+
+    /**
+     * Get a user by email, with the same ETag handling as the lookup by id
+     * 
+     * @param email the user email
+     * @return the user
+     */
+    @GetMapping("/by-email")
+    public ResponseEntity<UserResponseDTO> getUserByEmail(@RequestParam String email) {
+        return conditional(userQueryService.findByEmail(email));
+    }
+
+    /**
+     * Build a response Spring turns into a 304, skipping serialization, when If-None-Match matches
+     * the ETag. Clients must revalidate before reusing a stored copy, which is only valid for the
+     * format it was requested in.
+     */
+    private ResponseEntity<UserResponseDTO> conditional(CachedUser cached) {
+        return ResponseEntity.ok()
+            .eTag(cached.etag())
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(cached.user());
+    }
+
+    private static String clientOf(Principal principal) {
+        return principal == null ? null : principal.getName();
     }
 }
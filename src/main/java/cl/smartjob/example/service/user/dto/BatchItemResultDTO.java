@@ -0,0 +1,24 @@
+package cl.smartjob.example.service.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the result of a single item of a bulk registration
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO {
+
+    private Integer index;
+    private Integer status;
+    private UserResponseDTO user;
+    private String mensaje;
+}
@@ -0,0 +1,28 @@
+package cl.smartjob.example.service.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a line of the NDJSON stream reported by a user import. The type is "error" for a
+ * rejected input line, "progress" after each processed chunk and "summary" at the end.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEventDTO {
+
+    private String type;
+    private Integer line;
+    private Integer status;
+    private String mensaje;
+    private Long processed;
+    private Long created;
+    private Long failed;
+}
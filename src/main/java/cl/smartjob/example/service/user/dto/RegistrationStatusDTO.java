@@ -0,0 +1,35 @@
+package cl.smartjob.example.service.user.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the state of an asynchronous registration
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegistrationStatusDTO {
+
+    /** Queued, not yet persisted */
+    public static final String PENDING = "PENDING";
+
+    /** Persisted, the user can be read by id */
+    public static final String CREATED = "CREATED";
+
+    /** Rejected when persisted, see the message */
+    public static final String FAILED = "FAILED";
+
+    private UUID id;
+    private String status;
+    private Integer code;
+    private String mensaje;
+}
@@ -0,0 +1,28 @@
+package cl.smartjob.example.service.user.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the UserRegistered event published to other systems
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserRegisteredEventDTO {
+
+    /** Event type, also stored with the outbox row */
+    public static final String TYPE = "UserRegistered";
+
+    private String type;
+    private UUID userId;
+    private String name;
+    private String email;
+    private LocalDateTime created;
+}
@@ -7,28 +7,36 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import cl.smartjob.example.service.user.service.UserCacheListener;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_created_id", columnList = "created, id"),
+    uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"))
+@EntityListeners(UserCacheListener.class)
 public class User {
 
+    /** Unique constraint on the email, the authority on duplicate registrations */
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
-    @GeneratedValue()
+    @GeneratedUserId
     @Column(columnDefinition = "BINARY(16)", length = 36)
     private UUID id;
 
     @Column(nullable = false)
     private String name;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -0,0 +1,33 @@
+package cl.smartjob.example.service.user.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+import cl.smartjob.example.service.user.util.UuidV7;
+
+/**
+ * Generator of user ids that keeps an id already assigned to the entity, so a registration can
+ * hand out its id before the user is persisted. New ids are time-ordered UUIDv7.
+ */
+public class UserIdGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+        EventType eventType) {
+        return currentValue != null ? currentValue : UuidV7.generate();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
@@ -1,15 +1,16 @@
 package cl.smartjob.example.service.user.exception;
 
 /**
- * Exception thrown when attempting to register with an email that already exists
+ * Exception thrown when attempting to register with an email that already exists. Stackless, as
+ * it is part of the normal rejection path.
  */
 public class EmailAlreadyExistsException extends RuntimeException {
 
     public EmailAlreadyExistsException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public EmailAlreadyExistsException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -1,47 +1,118 @@
 package cl.smartjob.example.service.user.exception;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import cl.smartjob.example.service.user.dto.ErrorResponseDTO;
+import cl.smartjob.example.service.user.util.ContentFormats;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+import jakarta.annotation.PostConstruct;
 
 /**
- * Global exception handler for the application
+ * Global exception handler for the application.
+ * Error bodies are written in the format the request accepts, JSON unless it asks for Smile or
+ * CBOR. They are serialized once per message and format and reused, so rejecting a request costs
+ * no serialization; the configured validation messages are serialized at startup.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String INTERNAL_ERROR_MESSAGE = "Error interno del servidor";
+
+    // Bounds the cache in case messages ever carry request data
+    private static final int MAX_CACHED_BODIES = 256;
+
+    @Autowired
+    private ContentFormats contentFormats;
+
+    @Autowired
+    private ValidationUtil validationUtil;
+
+    private final Map<MediaType, ConcurrentHashMap<String, byte[]>> bodies = new LinkedHashMap<>();
+
+    /**
+     * Serialize the bodies of the configured messages in every format
+     */
+    @PostConstruct
+    public void initializeBodies() {
+        for (MediaType format : contentFormats.mediaTypes()) {
+            bodies.put(format, new ConcurrentHashMap<>());
+            body(format, validationUtil.getEmailMessage());
+            body(format, validationUtil.getPasswordMessage());
+            body(format, validationUtil.getUserMessage());
+            body(format, INTERNAL_ERROR_MESSAGE);
+        }
+    }
+
     /**
      * Handle EmailAlreadyExistsException
      */
     @ExceptionHandler(EmailAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponseDTO> handleEmailAlreadyExistsException(
+    public ResponseEntity<byte[]> handleEmailAlreadyExistsException(
         EmailAlreadyExistsException ex, WebRequest request) {
-        ErrorResponseDTO errorResponse = new ErrorResponseDTO(ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        return error(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    /**
+     * Handle UserNotFoundException
+     */
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<byte[]> handleUserNotFoundException(
+        UserNotFoundException ex, WebRequest request) {
+        return error(HttpStatus.NOT_FOUND, ex.getMessage(), request);
+    }
+
+    /**
+     * Handle IdempotencyKeyMismatchException
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<byte[]> handleIdempotencyKeyMismatchException(
+        IdempotencyKeyMismatchException ex, WebRequest request) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), request);
     }
 
     /**
      * Handle ValidationException
      */
     @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<ErrorResponseDTO> handleValidationException(
+    public ResponseEntity<byte[]> handleValidationException(
         ValidationException ex, WebRequest request) {
-        ErrorResponseDTO errorResponse = new ErrorResponseDTO(ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    /**
+     * Handle ServiceOverloadedException
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<byte[]> handleServiceOverloadedException(
+        ServiceOverloadedException ex, WebRequest request) {
+        MediaType format = format(request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .contentType(format)
+            .body(body(format, ex.getMessage()));
     }
 
     /**
      * Handle MethodArgumentNotValidException (Bean Validation errors)
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponseDTO> handleMethodArgumentNotValidException(
+    public ResponseEntity<byte[]> handleMethodArgumentNotValidException(
         MethodArgumentNotValidException ex, WebRequest request) {
 
         String errorMessage = ex.getBindingResult()
@@ -50,17 +121,54 @@ public class GlobalExceptionHandler {
             .map(fieldError -> fieldError.getDefaultMessage())
             .collect(Collectors.joining(", "));
 
-        ErrorResponseDTO errorResponse = new ErrorResponseDTO(errorMessage);
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return error(HttpStatus.BAD_REQUEST, errorMessage, request);
+    }
+
+    /**
+     * Handle MethodArgumentTypeMismatchException (e.g. a malformed user id in the path)
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<byte[]> handleMethodArgumentTypeMismatchException(
+        MethodArgumentTypeMismatchException ex, WebRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "El parámetro " + ex.getName() + " no es válido", request);
     }
 
     /**
      * Handle generic exceptions
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponseDTO> handleGenericException(
+    public ResponseEntity<byte[]> handleGenericException(
         Exception ex, WebRequest request) {
-        ErrorResponseDTO errorResponse = new ErrorResponseDTO("Error interno del servidor");
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR_MESSAGE, request);
+    }
+
+    private ResponseEntity<byte[]> error(HttpStatus status, String mensaje, WebRequest request) {
+        MediaType format = format(request);
+        return ResponseEntity.status(status)
+            .contentType(format)
+            .body(body(format, mensaje));
+    }
+
+    private MediaType format(WebRequest request) {
+        return contentFormats.negotiate(request == null ? null : request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Get the serialized error body of a message, from the cache when it was seen before
+     */
+    private byte[] body(MediaType format, String mensaje) {
+        ConcurrentHashMap<String, byte[]> cached = bodies.get(format);
+        byte[] body = mensaje == null ? null : cached.get(mensaje);
+        if (body == null) {
+            try {
+                body = contentFormats.mapper(format).writeValueAsBytes(new ErrorResponseDTO(mensaje));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Error body could not be serialized", ex);
+            }
+            if (mensaje != null && cached.size() < MAX_CACHED_BODIES) {
+                cached.putIfAbsent(mensaje, body);
+            }
+        }
+        return body;
     }
 }
@@ -0,0 +1,11 @@
+package cl.smartjob.example.service.user.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key is reused with a different request
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message, null, false, false);
+    }
+}
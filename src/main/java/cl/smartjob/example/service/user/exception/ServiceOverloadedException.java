@@ -0,0 +1,19 @@
+package cl.smartjob.example.service.user.exception;
+
+/**
+ * Exception thrown when a request is rejected because the service is saturated. Thrown at the
+ * highest rates of all, so it skips the stack trace.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package cl.smartjob.example.service.user.exception;
+
+/**
+ * Exception thrown when the requested user does not exist
+ */
+public class UserNotFoundException extends RuntimeException {
+
+    public UserNotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
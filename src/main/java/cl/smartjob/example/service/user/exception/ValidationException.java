@@ -1,15 +1,16 @@
 package cl.smartjob.example.service.user.exception;
 
 /**
- * Exception thrown when validation fails
+ * Exception thrown when validation fails. Rejections are expected traffic and are answered
+ * with the message alone, so no stack trace is filled in.
  */
 public class ValidationException extends RuntimeException {
 
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ValidationException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,13 @@
+package cl.smartjob.example.service.user.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the Exists Check phase of a registration
+ */
+@Name("cl.smartjob.registration.ExistsCheck")
+@Label("Registration Exists Check")
+@Description("Email index lookup and existence query")
+public class ExistsCheckEvent extends RegistrationPhaseEvent {}
@@ -0,0 +1,13 @@
+package cl.smartjob.example.service.user.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the Hash phase of a registration
+ */
+@Name("cl.smartjob.registration.Hash")
+@Label("Registration Hash")
+@Description("Password hashing, including the wait for the hashing pool")
+public class HashEvent extends RegistrationPhaseEvent {}
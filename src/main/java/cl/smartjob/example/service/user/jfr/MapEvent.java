@@ -0,0 +1,13 @@
+package cl.smartjob.example.service.user.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the Map phase of a registration
+ */
+@Name("cl.smartjob.registration.Map")
+@Label("Registration Map")
+@Description("Mapping between DTOs and entities")
+public class MapEvent extends RegistrationPhaseEvent {}
@@ -0,0 +1,13 @@
+package cl.smartjob.example.service.user.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the Persist phase of a registration
+ */
+@Name("cl.smartjob.registration.Persist")
+@Label("Registration Persist")
+@Description("Transaction that saves the user and its phones")
+public class PersistEvent extends RegistrationPhaseEvent {}
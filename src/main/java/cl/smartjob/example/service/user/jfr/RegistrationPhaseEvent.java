@@ -0,0 +1,70 @@
+package cl.smartjob.example.service.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base JFR event for a phase of a registration. Events are timed with begin() and end(), and
+ * only committed when enabled and above the threshold of the recording settings, so a disabled
+ * event costs a few branches. The events of one registration share its number, which carries
+ * nothing of the email: a hash of the address could be matched against a list of candidates.
+ */
+@Category({"SmartJob", "Registration"})
+@StackTrace(false)
+public abstract class RegistrationPhaseEvent extends Event {
+
+    /** Outcome of a phase the registration went past */
+    public static final String PASSED = "passed";
+
+    private static final AtomicLong REGISTRATIONS = new AtomicLong();
+
+    @Label("Registration")
+    @Description("Number of the registration in this process, to correlate its phases")
+    public long registration;
+
+    @Label("Outcome")
+    @Description("Outcome of the registration if it ended in this phase, passed otherwise")
+    public String outcome;
+
+    /**
+     * Number a registration for the registration field
+     * 
+     * @return a number no other registration of this process has
+     */
+    public static long nextRegistration() {
+        return REGISTRATIONS.incrementAndGet();
+    }
+
+    /**
+     * End this phase, committing it if it is enabled and above its threshold
+     * 
+     * @param registration number of the registration
+     * @param outcome outcome of the phase
+     */
+    public void finish(long registration, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.registration = registration;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    /**
+     * End this phase as passed and begin the next one
+     * 
+     * @param next event of the next phase
+     * @param registration number of the registration
+     * @return the next event, already begun
+     */
+    public RegistrationPhaseEvent next(RegistrationPhaseEvent next, long registration) {
+        finish(registration, PASSED);
+        next.begin();
+        return next;
+    }
+}
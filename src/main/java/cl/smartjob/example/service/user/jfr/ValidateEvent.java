@@ -0,0 +1,13 @@
+package cl.smartjob.example.service.user.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the Validate phase of a registration
+ */
+@Name("cl.smartjob.registration.Validate")
+@Label("Registration Validate")
+@Description("Email and password format checks")
+public class ValidateEvent extends RegistrationPhaseEvent {}
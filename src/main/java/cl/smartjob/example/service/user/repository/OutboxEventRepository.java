@@ -0,0 +1,21 @@
+package cl.smartjob.example.service.user.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import cl.smartjob.example.service.user.entity.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find the oldest events waiting to be relayed
+     * 
+     * @param limit maximum number of events
+     * @return events in id order
+     */
+    List<OutboxEvent> findByOrderByIdAsc(Limit limit);
+}
@@ -1,12 +1,23 @@
 package cl.smartjob.example.service.user.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import cl.smartjob.example.service.user.entity.User;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -19,6 +30,24 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Find user by id, fetching its phones in the same query
+     * 
+     * @param id the user id
+     * @return Optional containing the user if found
+     */
+    @EntityGraph(attributePaths = "phones")
+    Optional<User> findWithPhonesById(UUID id);
+
+    /**
+     * Find user by email, fetching its phones in the same query
+     * 
+     * @param email the email to search for
+     * @return Optional containing the user if found
+     */
+    @EntityGraph(attributePaths = "phones")
+    Optional<User> findWithPhonesByEmail(String email);
+
     /**
      * Check if email already exists
      * 
@@ -26,4 +55,52 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @return true if email exists, false otherwise
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Find which of the given emails are already registered
+     * 
+     * @param emails the emails to check
+     * @return the subset of emails that already exist
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Stream every registered email. Must be consumed inside a transaction and closed.
+     * 
+     * @return stream of emails
+     */
+    @Query("select u.email from User u")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<String> streamAllEmails();
+
+    /**
+     * Find the ids of the first users in (created, id) order
+     * 
+     * @param limit maximum number of ids
+     * @return ids in listing order
+     */
+    @Query("select u.id from User u order by u.created, u.id")
+    List<UUID> findPageIds(Limit limit);
+
+    /**
+     * Find the ids of the users that follow a (created, id) key, seeking on the index on those
+     * columns so every page costs the same however deep it is
+     * 
+     * @param created creation time of the last user of the previous page
+     * @param id id of the last user of the previous page
+     * @param limit maximum number of ids
+     * @return ids in listing order
+     */
+    @Query("select u.id from User u where (u.created, u.id) > (:created, :id) order by u.created, u.id")
+    List<UUID> findPageIdsAfter(@Param("created") LocalDateTime created, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Find users with their phones, in one query
+     * 
+     * @param ids the user ids
+     * @return the users, in no particular order
+     */
+    @Query("select distinct u from User u left join fetch u.phones where u.id in :ids")
+    List<User> findAllWithPhonesByIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,191 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.util.EmailBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-process index of registered emails, backed by a Bloom filter seeded from the users table at
+ * startup and updated after every successful save. A definite miss lets registration skip the
+ * existence query; a possible hit still goes to the database. Until the index is seeded every
+ * lookup is answered as a possible hit.
+ */
+@Service
+public class EmailIndexService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${registration.email-index.expected-insertions}")
+    private long expectedInsertions;
+
+    @Value("${registration.email-index.false-positive-rate}")
+    private double falsePositiveRate;
+
+    private volatile EmailBloomFilter filter;
+    private volatile EmailBloomFilter rebuilding;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private Counter definiteMisses;
+    private Counter possibleHits;
+    private Counter falsePositives;
+
+    /**
+     * Register the index metrics
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("registration.email-index.memory", this,
+            index -> index.current(EmailBloomFilter::memoryBytes))
+            .description("Memory used by the email index")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("registration.email-index.insertions", this,
+            index -> index.current(EmailBloomFilter::insertions))
+            .description("Emails added to the email index")
+            .register(meterRegistry);
+        Gauge.builder("registration.email-index.expected.fpp", this,
+            index -> index.current(EmailBloomFilter::expectedFalsePositiveRate))
+            .description("False positive rate expected for the current fill of the email index")
+            .register(meterRegistry);
+        definiteMisses = Counter.builder("registration.email-index.lookups")
+            .tag("result", "miss")
+            .description("Email index lookups")
+            .register(meterRegistry);
+        possibleHits = Counter.builder("registration.email-index.lookups")
+            .tag("result", "maybe")
+            .description("Email index lookups")
+            .register(meterRegistry);
+        falsePositives = Counter.builder("registration.email-index.false-positives")
+            .description("Possible hits of the email index that were not in the database")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Seed the index once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the index from the users table of every shard, one after the other. The current index
+     * keeps answering while the new one is built, and emails saved meanwhile are added to both, so
+     * none is lost in the swap.
+     */
+    public void rebuild() {
+        // A lock rather than synchronized, so a virtual thread waiting on the scan is not pinned
+        rebuildLock.lock();
+        try {
+            EmailBloomFilter next = new EmailBloomFilter(expectedInsertions, falsePositiveRate);
+            rebuilding = next;
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                shardRouter.onShard(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<String> emails = userRepository.streamAllEmails()) {
+                        emails.forEach(next::put);
+                    }
+                }));
+            }
+            filter = next;
+        } finally {
+            rebuilding = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Check whether an email may be registered
+     * 
+     * @param email the email to check
+     * @return false only if the email is definitely not registered
+     */
+    public boolean mightContain(String email) {
+        EmailBloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        if (current.mightContain(email)) {
+            possibleHits.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * Record that a possible hit turned out not to be registered
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Add a saved email to the index
+     * 
+     * @param email the saved email
+     */
+    public void add(String email) {
+        // Rebuilding is read first: rebuild() publishes the new filter before clearing it, so if
+        // it is already cleared the filter read next is the new one
+        EmailBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(email);
+        }
+        EmailBloomFilter current = filter;
+        if (current != null && current != next) {
+            current.put(email);
+        }
+    }
+
+    /**
+     * Get the current state of the index
+     * 
+     * @return index statistics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        EmailBloomFilter current = filter;
+        stats.put("ready", current != null);
+        stats.put("rebuilding", rebuilding != null);
+        if (current != null) {
+            stats.put("insertions", current.insertions());
+            stats.put("memoryBytes", current.memoryBytes());
+            stats.put("expectedFalsePositiveRate", current.expectedFalsePositiveRate());
+        }
+        // Lookups of unregistered emails are the definite misses plus the false positives
+        double negatives = definiteMisses.count() + falsePositives.count();
+        stats.put("observedFalsePositiveRate", negatives == 0 ? 0 : falsePositives.count() / negatives);
+        return stats;
+    }
+
+    private double current(ToDoubleFunction<EmailBloomFilter> metric) {
+        EmailBloomFilter current = filter;
+        return current == null ? 0 : metric.applyAsDouble(current);
+    }
+}
@@ -0,0 +1,191 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.util.SegmentLog;
+import cl.smartjob.example.service.user.util.SegmentLog.Entry;
+import cl.smartjob.example.service.user.util.SegmentLog.Record;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local event log. Events relayed from the outbox are appended to a memory-mapped segment log on
+ * disk, and consumers read them by offset, keeping track of the next offset to read themselves.
+ * Whole segments are deleted once they are older than the retention time or the log outgrows its
+ * size limit.
+ */
+@Service
+public class EventLogService {
+
+    private static final String INVALID_OFFSET_MESSAGE = "El offset no puede ser negativo";
+    private static final String INVALID_LIMIT_MESSAGE = "La cantidad de eventos debe estar entre 1 y ";
+    private static final String INVALID_WAIT_MESSAGE = "La espera no puede superar ";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.log.directory}")
+    private Path directory;
+
+    @Value("${outbox.log.segment-size}")
+    private DataSize segmentSize;
+
+    @Value("${outbox.log.retention}")
+    private Duration retention;
+
+    @Value("${outbox.log.retention-bytes}")
+    private DataSize retentionBytes;
+
+    @Value("${outbox.log.retention-check-interval}")
+    private Duration retentionCheckInterval;
+
+    @Value("${outbox.reader.max-events}")
+    private int maxEvents;
+
+    @Value("${outbox.reader.max-wait}")
+    private Duration maxWait;
+
+    private SegmentLog log;
+    private ScheduledExecutorService retentionScheduler;
+    private Counter deletedSegments;
+
+    /**
+     * Open the log, recovering whatever an earlier run left in it, and schedule the retention
+     * 
+     * @throws IOException if the log cannot be opened
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        log = SegmentLog.open(directory, Math.toIntExact(segmentSize.toBytes()));
+
+        Gauge.builder("outbox.log.end.offset", log, SegmentLog::endOffset)
+            .description("Offset the next event appended to the log will get")
+            .register(meterRegistry);
+        Gauge.builder("outbox.log.segments", log, SegmentLog::segmentCount)
+            .description("Segment files of the event log")
+            .register(meterRegistry);
+        deletedSegments = Counter.builder("outbox.log.segments.deleted")
+            .description("Segment files deleted by the retention")
+            .register(meterRegistry);
+
+        retentionScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("event-log-retention").daemon(true).factory());
+        retentionScheduler.scheduleWithFixedDelay(this::applyRetention, retentionCheckInterval.toMillis(),
+            retentionCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the retention and force the log to disk
+     */
+    @PreDestroy
+    public void close() {
+        retentionScheduler.shutdownNow();
+        log.close();
+    }
+
+    /**
+     * Append events to the log. Only the outbox relay appends.
+     * 
+     * @param entries the events, each keyed by its event id
+     * @throws IOException if a new segment cannot be created
+     */
+    public void append(List<Entry> entries) throws IOException {
+        log.append(entries);
+    }
+
+    /**
+     * Read the last events of the log
+     * 
+     * @param count maximum number of events
+     * @return the events, in offset order
+     */
+    public List<Record> tail(int count) {
+        return log.tail(count);
+    }
+
+    /**
+     * Write the events starting at an offset as a JSON page. When there are none yet, wait up to
+     * the given time for one to be appended. An offset before the start of the log, whose events
+     * were already deleted, reads from the start.
+     * 
+     * @param offset offset of the first event to read
+     * @param limit maximum number of events
+     * @param wait longest time to wait for an event, zero to return at once
+     * @param output stream the page is written to
+     * @throws IOException if writing the page fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void writeEvents(long offset, int limit, Duration wait, OutputStream output)
+        throws IOException, InterruptedException {
+        if (offset < 0) {
+            throw new ValidationException(INVALID_OFFSET_MESSAGE);
+        }
+        if (limit < 1 || limit > maxEvents) {
+            throw new ValidationException(INVALID_LIMIT_MESSAGE + maxEvents);
+        }
+        if (wait.isNegative() || wait.compareTo(maxWait) > 0) {
+            throw new ValidationException(INVALID_WAIT_MESSAGE + maxWait.toSeconds() + " segundos");
+        }
+
+        long from = Math.max(offset, log.startOffset());
+        if (!wait.isZero()) {
+            log.awaitOffset(from, wait);
+        }
+        List<Record> records = log.read(from, limit);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeNumberField("startOffset", log.startOffset());
+            generator.writeNumberField("endOffset", log.endOffset());
+            generator.writeArrayFieldStart("events");
+            for (Record record : records) {
+                generator.writeStartObject();
+                generator.writeNumberField("offset", record.offset());
+                generator.writeStringField("key", record.key().toString());
+                generator.writeNumberField("timestamp", record.timestamp());
+                // Payloads are stored as serialized JSON
+                generator.writeFieldName("payload");
+                generator.writeRawValue(new String(record.payload(), StandardCharsets.UTF_8));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("next", records.isEmpty() ? from : records.getLast().offset() + 1);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Delete the segments past the retention. Failures are left for the next check.
+     */
+    private void applyRetention() {
+        try {
+            deletedSegments.increment(log.applyRetention(retention, retentionBytes.toBytes()));
+        } catch (IOException | RuntimeException ex) {
+            // Retried on the next check
+        }
+    }
+}
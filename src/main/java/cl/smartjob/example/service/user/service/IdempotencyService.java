@@ -0,0 +1,192 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cl.smartjob.example.service.user.exception.IdempotencyKeyMismatchException;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import cl.smartjob.example.service.user.exception.ValidationException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Store of recent Idempotency-Key values and the responses they produced, bounded by size and TTL.
+ * The first request with a key runs; a retry with the same key gets the stored response back
+ * without running again, and one arriving while the first is still running waits for its result.
+ * Failures are not stored, so a retry after an error runs again.
+ * 
+ * Keys are scoped by route and, when the request is authenticated, by client, so the same key sent
+ * to another endpoint or by another client is a different key. A key is bound to the SHA-256 of
+ * the request as bound and serialized again, so formatting and field order of the original body
+ * do not matter, but any change to its content does.
+ */
+@Service
+public class IdempotencyService {
+
+    /** Request header carrying the idempotency key */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** Response header set on replayed responses */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String INVALID_KEY_MESSAGE = "La cabecera Idempotency-Key no es válida";
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.maximum-size}")
+    private long maximumSize;
+
+    @Value("${idempotency.expire-after-write}")
+    private Duration expireAfterWrite;
+
+    @Value("${idempotency.wait-timeout}")
+    private Duration waitTimeout;
+
+    @Value("${idempotency.retry-after-seconds}")
+    private long retryAfterSeconds;
+
+    @Value("${idempotency.mismatch-message}")
+    private String mismatchMessage;
+
+    @Value("${idempotency.in-flight-message}")
+    private String inFlightMessage;
+
+    private Cache<ScopedKey, Entry> entries;
+    private ObjectWriter canonicalWriter;
+    private Counter executed;
+    private Counter replayed;
+
+    /**
+     * An Idempotency-Key as sent to a route by a client, null if anonymous
+     */
+    private record ScopedKey(String route, String client, String key) {}
+
+    /**
+     * A fingerprint of the request that first used a key and the response it produced, incomplete
+     * while that request is running
+     */
+    private record Entry(byte[] fingerprint, CompletableFuture<ResponseEntity<?>> response) {}
+
+    /**
+     * Build the store and register its metrics
+     */
+    @PostConstruct
+    public void initializeCache() {
+        entries = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+        canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        executed = meterRegistry.counter("idempotency.requests", "result", "executed");
+        replayed = meterRegistry.counter("idempotency.requests", "result", "replayed");
+    }
+
+    /**
+     * Run a request at most once per key, route and client
+     * 
+     * @param route the endpoint the request was sent to
+     * @param client the authenticated client, or null if anonymous
+     * @param key the Idempotency-Key header, or null to run the request unconditionally
+     * @param request the request body, whose digest must match the one stored with the key
+     * @param action produces the response of the request
+     * @return the response of the action, or the one stored for the key
+     * @throws ValidationException if the key is empty or too long
+     * @throws IdempotencyKeyMismatchException if the key was used with a different request
+     * @throws ServiceOverloadedException if the request holding the key does not finish in time
+     */
+    public <T> ResponseEntity<T> execute(String route, String client, String key, Object request,
+        Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(INVALID_KEY_MESSAGE);
+        }
+
+        ScopedKey scopedKey = new ScopedKey(route, client, key);
+        Entry entry = new Entry(fingerprint(request), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.fingerprint(), entry.fingerprint())) {
+                throw new IdempotencyKeyMismatchException(mismatchMessage);
+            }
+            return replay(await(existing));
+        }
+
+        executed.increment();
+        try {
+            ResponseEntity<T> response = action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException | Error ex) {
+            // Forget the key before waking the waiters, so later retries run again
+            entries.asMap().remove(scopedKey, entry);
+            entry.response().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(canonicalWriter.writeValueAsBytes(request));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Request could not be serialized for its fingerprint", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(FINGERPRINT_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> await(Entry entry) {
+        try {
+            return (ResponseEntity<T>) entry.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // The waiters fail like the request they waited on
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw (Error) ex.getCause();
+        } catch (TimeoutException ex) {
+            throw new ServiceOverloadedException(inFlightMessage, retryAfterSeconds);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException(inFlightMessage, retryAfterSeconds);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(ResponseEntity<T> response) {
+        replayed.increment();
+        return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .header(REPLAYED_HEADER, "true")
+            .body(response.getBody());
+    }
+}
@@ -0,0 +1,147 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.entity.OutboxEvent;
+import cl.smartjob.example.service.user.repository.OutboxEventRepository;
+import cl.smartjob.example.service.user.util.SegmentLog.Entry;
+import cl.smartjob.example.service.user.util.SegmentLog.Record;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Relay of the outbox table to the event log. A single thread reads the oldest outbox rows in
+ * batches, appends them to the log and deletes them. A batch is deleted only after it is on disk,
+ * so a crash in between leaves it in the table; the records appended last are remembered, also
+ * across restarts, and rows matching one of them are deleted without being appended again.
+ * Consumers should still treat the record key as the identity of an event: the UUIDv7 event id
+ * of the outbox row, unique across shards and restarts, unlike the row id. Shards are relayed one
+ * after the other.
+ */
+@Service
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EventLogService eventLogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Value("${outbox.relay.interval}")
+    private Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    // Keys of the appended records whose rows may not be deleted yet
+    private final Set<UUID> unconfirmed = new HashSet<>();
+
+    private Counter relayed;
+    private Counter failures;
+
+    /**
+     * Remember the last appended records and start relaying
+     */
+    @PostConstruct
+    public void start() {
+        for (Record record : eventLogService.tail(batchSize)) {
+            unconfirmed.add(record.key());
+        }
+
+        relayed = Counter.builder("outbox.relay.events")
+            .description("Outbox events appended to the event log")
+            .register(meterRegistry);
+        failures = Counter.builder("outbox.relay.failures")
+            .description("Relay runs that failed and were left for the next one")
+            .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-relay").daemon(true).factory());
+        scheduler.scheduleWithFixedDelay(this::relay, interval.toMillis(), interval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the schedule and relay whatever was committed before the web server stopped
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(interval.toMillis() + 10_000, TimeUnit.MILLISECONDS);
+        relay();
+    }
+
+    /**
+     * Relay batches until the outbox of every shard is empty. Failures are counted and left for the
+     * next run, without holding back the other shards.
+     */
+    private void relay() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try {
+                while (relayBatch(shard) == batchSize) {
+                    // Keep going while full batches are found
+                }
+            } catch (IOException | RuntimeException ex) {
+                failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Append the oldest outbox rows of a shard to the log and delete them
+     * 
+     * @param shard the shard number
+     * @return number of rows read
+     * @throws IOException if the log cannot be written
+     */
+    int relayBatch(int shard) throws IOException {
+        List<OutboxEvent> events = shardRouter.onShard(shard,
+            () -> outboxEventRepository.findByOrderByIdAsc(Limit.of(batchSize)));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<Entry> entries = events.stream()
+            .filter(event -> !unconfirmed.contains(event.getEventId()))
+            .map(event -> new Entry(event.getEventId(), event.getPayload().getBytes(StandardCharsets.UTF_8)))
+            .toList();
+        if (!entries.isEmpty()) {
+            eventLogService.append(entries);
+            entries.forEach(entry -> unconfirmed.add(entry.key()));
+            relayed.increment(entries.size());
+        }
+
+        List<Long> ids = events.stream().map(OutboxEvent::getId).toList();
+        shardRouter.onShard(shard,
+            () -> transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids)));
+        events.forEach(event -> unconfirmed.remove(event.getEventId()));
+        return events.size();
+    }
+}
@@ -0,0 +1,64 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import cl.smartjob.example.service.user.dto.UserRegisteredEventDTO;
+import cl.smartjob.example.service.user.entity.OutboxEvent;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.repository.OutboxEventRepository;
+
+/**
+ * Service that records events in the outbox table. It must be called inside the transaction that
+ * writes the change the event describes, so the event is committed if and only if the change is;
+ * OutboxRelay then moves it to the event log.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Record a UserRegistered event for a user being saved
+     * 
+     * @param user the persisted user
+     */
+    public void userRegistered(User user) {
+        outboxEventRepository.save(toEvent(objectMapper.writer(), user));
+    }
+
+    /**
+     * Record a UserRegistered event for each user of a batch being saved
+     * 
+     * @param users the persisted users
+     */
+    public void usersRegistered(List<User> users) {
+        ObjectWriter writer = objectMapper.writer();
+        outboxEventRepository.saveAll(users.stream().map(user -> toEvent(writer, user)).toList());
+    }
+
+    private OutboxEvent toEvent(ObjectWriter writer, User user) {
+        UserRegisteredEventDTO event = UserRegisteredEventDTO.builder()
+            .type(UserRegisteredEventDTO.TYPE)
+            .userId(user.getId())
+            .name(user.getName())
+            .email(user.getEmail())
+            .created(user.getCreated())
+            .build();
+        try {
+            return new OutboxEvent(UserRegisteredEventDTO.TYPE, user.getId(), writer.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("UserRegistered event could not be serialized", ex);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service that hashes passwords on a dedicated pool sized to the cores, keeping BCrypt off the
+ * request threads. The pool takes a bounded number of passwords, one permit each: single
+ * registrations are rejected immediately when no permit is left, while bulk operations wait for
+ * one and hash with bounded parallelism. Every password goes through the executor, so one
+ * submitted after shutdown is rejected instead of left in a queue no thread reads.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${registration.hashing.parallelism}")
+    private int parallelism;
+
+    @Value("${registration.hashing.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${registration.hashing.retry-after-seconds}")
+    private long retryAfterSeconds;
+
+    @Value("${registration.hashing.message}")
+    private String overloadedMessage;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore permits;
+    private int threads;
+
+    private Timer waitTimer;
+    private Timer hashTimer;
+    private Counter rejectedCounter;
+
+    /**
+     * Start the hashing pool and register its metrics. A non-positive parallelism means one thread
+     * per available core.
+     */
+    @PostConstruct
+    public void start() {
+        threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        // The permits bound the work in the pool, so its queue itself never has to reject a task
+        permits = new Semaphore(threads + queueCapacity);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("registration.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+            .description("Passwords waiting to be hashed")
+            .register(meterRegistry);
+        Gauge.builder("registration.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Passwords being hashed")
+            .register(meterRegistry);
+        waitTimer = Timer.builder("registration.hashing.wait")
+            .description("Time a password waits in the queue before hashing starts")
+            .register(meterRegistry);
+        hashTimer = Timer.builder("registration.hashing.duration")
+            .description("Time spent hashing a password")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("registration.hashing.rejected")
+            .description("Hash requests rejected because the queue was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Stop the hashing pool
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Encode a single raw password, failing fast when the hashing queue is full
+     * 
+     * @param rawPassword the password to encode
+     * @return the encoded password
+     * @throws ServiceOverloadedException if the hashing queue is full
+     */
+    public String encode(String rawPassword) {
+        if (!permits.tryAcquire()) {
+            throw overloaded();
+        }
+        Future<String> future;
+        try {
+            future = submit(rawPassword);
+        } catch (RejectedExecutionException ex) {
+            throw overloaded();
+        }
+        return await(future);
+    }
+
+    /**
+     * Encode a list of raw passwords in parallel. At most one task per pool thread is in flight for
+     * each call, and the caller blocks while the queue is full instead of being rejected.
+     * 
+     * @param rawPasswords the passwords to encode
+     * @return the encoded passwords, in the same order
+     * @throws IllegalStateException if the pool is shut down or the caller is interrupted
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (int i = 0; i < rawPasswords.size(); i++) {
+                if (i >= threads) {
+                    await(futures.get(i - threads));
+                }
+                permits.acquire();
+                futures.add(submit(rawPasswords.get(i)));
+            }
+
+            List<String> encodedPasswords = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                encodedPasswords.add(await(future));
+            }
+            return encodedPasswords;
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing interrupted", ex);
+        } catch (RejectedExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing pool is shut down", ex);
+        } catch (RuntimeException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+    }
+
+    /**
+     * Submit the hashing of a password holding an acquired permit, which is released when the task
+     * completes or is cancelled, or at once if the pool rejects it
+     */
+    private Future<String> submit(String rawPassword) {
+        FutureTask<String> task = new FutureTask<>(hashTask(rawPassword)) {
+            @Override
+            protected void done() {
+                permits.release();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            throw ex;
+        }
+        return task;
+    }
+
+    /**
+     * Wrap the hashing of a password so queue wait and hash time are recorded
+     */
+    private Callable<String> hashTask(String rawPassword) {
+        long enqueuedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                return passwordEncoder.encode(rawPassword);
+            } finally {
+                hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private ServiceOverloadedException overloaded() {
+        rejectedCounter.increment();
+        return new ServiceOverloadedException(overloadedMessage, retryAfterSeconds);
+    }
+
+    private String await(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cl.smartjob.example.service.user.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.service.RegistrationMetrics.Phase;
+
+/**
+ * Sampled log of single registrations, one JSON object per line with the endpoint, the outcome
+ * and the time spent in each phase. It carries no personal data: no email, name, phone or id.
+ * 
+ * Whether a registration is logged is decided when it starts, so the ones left out only pay for
+ * a random number and allocate nothing. A sampled one allocates the array its timings go in; it
+ * is not kept per thread because every request runs on a new virtual thread. The line is built
+ * from a constant pattern and boxed primitives that Log4j formats into its reusable buffers, so
+ * writing it does not allocate in the garbage-free mode the production configuration runs in. The
+ * log is turned on and off at runtime with the level of the cl.smartjob.registration logger.
+ */
+@Component
+public class RegistrationLog {
+
+    /** Logged outcome of an asynchronous registration accepted for writing */
+    public static final String QUEUED = "queued";
+
+    private static final Logger LOGGER = LogManager.getLogger("cl.smartjob.registration");
+    private static final String LINE = "{\"ts\":{},\"endpoint\":\"{}\",\"outcome\":\"{}\",\"total_us\":{},"
+        + "\"validation_us\":{},\"email_check_us\":{},\"hashing_us\":{},\"save_us\":{},\"mapping_us\":{}}";
+    private static final int START = Phase.values().length;
+
+    @Value("${registration.log.sample-rate}")
+    private double sampleRate;
+
+    /**
+     * Decide whether a registration starting now is logged
+     * 
+     * @return the sample to record its phases in, or null if it is not logged
+     */
+    public long[] sample() {
+        if (!LOGGER.isInfoEnabled() || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        long[] sample = new long[START + 1];
+        sample[START] = System.nanoTime();
+        return sample;
+    }
+
+    /**
+     * Log a sampled registration
+     * 
+     * @param endpoint endpoint the registration came through
+     * @param outcome outcome of the registration
+     * @param sample sample of the registration, null if it is not logged
+     */
+    public void log(String endpoint, String outcome, long[] sample) {
+        if (sample == null) {
+            return;
+        }
+        LOGGER.info(LINE, Unbox.box(System.currentTimeMillis()), endpoint, outcome,
+            micros(System.nanoTime() - sample[START]), micros(sample[Phase.VALIDATION.ordinal()]),
+            micros(sample[Phase.EMAIL_CHECK.ordinal()]), micros(sample[Phase.HASHING.ordinal()]),
+            micros(sample[Phase.SAVE.ordinal()]), micros(sample[Phase.MAPPING.ordinal()]));
+    }
+
+    private static StringBuilder micros(long nanos) {
+        return Unbox.box(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
@@ -0,0 +1,150 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Registration metrics: one timer per phase of a registration and one counter per outcome.
+ * Meters are registered upfront, so recording on the request path does not allocate. Percentiles
+ * and histogram buckets are configured in application.yml under management.metrics.distribution.
+ */
+@Component
+public class RegistrationMetrics {
+
+    /**
+     * Phases of a single registration
+     */
+    public enum Phase {
+        VALIDATION, EMAIL_CHECK, HASHING, SAVE, MAPPING;
+
+        private final String tag = tagValue(this);
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    /**
+     * Outcomes of a registration, single or batch item
+     */
+    public enum Outcome {
+        CREATED, DUPLICATE, INVALID_EMAIL, INVALID_PASSWORD, INVALID_REQUEST, OVERLOADED, ERROR;
+
+        private final String tag = tagValue(this);
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    /**
+     * Register a timer per phase and a counter per outcome
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("registration.phase")
+                .tag("phase", phase.tag())
+                .description("Time spent in each phase of a registration")
+                .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("registration.outcome")
+                .tag("outcome", outcome.tag())
+                .description("Registrations by outcome")
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Start timing the first phase
+     *
+     * @return start timestamp in nanoseconds
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time since the given timestamp for a phase
+     *
+     * @param phase the phase that ended
+     * @param startNanos timestamp at which the phase started
+     * @return timestamp at which the phase ended, to chain into the next phase
+     */
+    public long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseTimers.get(phase).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Record a duration for a phase
+     *
+     * @param phase the phase
+     * @param nanos duration in nanoseconds
+     */
+    public void recordNanos(Phase phase, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time since the given timestamp for a phase, also in the sample of the
+     * registration log
+     *
+     * @param phase the phase that ended
+     * @param startNanos timestamp at which the phase started
+     * @param sample sample of the registration log, null if the registration is not logged
+     * @return timestamp at which the phase ended, to chain into the next phase
+     */
+    public long record(Phase phase, long startNanos, long[] sample) {
+        long now = record(phase, startNanos);
+        if (sample != null) {
+            sample[phase.ordinal()] += now - startNanos;
+        }
+        return now;
+    }
+
+    /**
+     * Record a duration for a phase, also in the sample of the registration log
+     *
+     * @param phase the phase
+     * @param nanos duration in nanoseconds
+     * @param sample sample of the registration log, null if the registration is not logged
+     */
+    public void recordNanos(Phase phase, long nanos, long[] sample) {
+        recordNanos(phase, nanos);
+        if (sample != null) {
+            sample[phase.ordinal()] += nanos;
+        }
+    }
+
+    /**
+     * Count a registration outcome
+     *
+     * @param outcome the outcome
+     */
+    public void outcome(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,96 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
+
+/**
+ * Optional warm-up of the registration path, run after the context is refreshed and before the
+ * application reports itself ready, so the first registrations a new instance receives do not pay
+ * for class loading, JIT compilation and the first use of the Hibernate metamodel.
+ * 
+ * Each iteration reads a request from JSON, validates it and registers it through UserService,
+ * the code real requests run, with its metrics, JFR events, email index and hashing, inside a
+ * transaction on the shard of the email that is rolled back; the response is then written as
+ * JSON. The email index is seeded only once the application is ready, so every iteration runs the
+ * existence query and the index keeps none of the rolled back emails. Warm-up registrations are
+ * counted in the registration metrics like any other, before the instance reports ready.
+ */
+@Service
+public class RegistrationWarmup implements ApplicationRunner {
+
+    private static final String EMAIL = "warmup@warmup.invalid";
+    private static final String PASSWORD = "Warmup123!";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${warmup.enabled}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        for (int i = 0; i < iterations; i++) {
+            register();
+        }
+        sample.stop(Timer.builder("registration.warmup")
+            .description("Time spent warming up the registration path before readiness")
+            .register(meterRegistry));
+    }
+
+    private void register() throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(UserRequestDTO.builder()
+            .name("Warmup")
+            .email(EMAIL)
+            .password(PASSWORD)
+            .phones(List.of(new PhoneDTO("1234567", "1", "57")))
+            .build());
+        UserRequestDTO request = objectMapper.readValue(body, UserRequestDTO.class);
+        validator.validate(request);
+
+        // The registration joins this transaction, already on its shard, so nothing it writes,
+        // the user or its event, is committed
+        UserResponseDTO response = shardRouter.onShardOf(EMAIL, () -> transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return userService.registerUser(request);
+        }));
+        objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,403 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.dto.RegistrationStatusDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import cl.smartjob.example.service.user.exception.UserNotFoundException;
+import cl.smartjob.example.service.user.mapper.EntityUserMapper;
+import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.service.RegistrationMetrics.Outcome;
+import cl.smartjob.example.service.user.util.ConstraintViolations;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Write-behind store of asynchronous registrations. Registrations are validated and hashed on the
+ * request thread and queued here with their user id already assigned; a single writer thread
+ * drains the queue and persists each group of queued users in one transaction per shard with
+ * batched inserts. The email of a registration stays reserved from before its existence check until it
+ * is committed or rejected, so a second registration of it is a duplicate meanwhile. A place in the
+ * queue is also taken before the registration is hashed, so a full queue rejects it before it
+ * costs a hash. The queue is
+ * flushed when the application shuts down, before the outbox relay stops, so the events of the
+ * flushed users are relayed too.
+ */
+@Service
+@DependsOn("outboxRelay")
+public class RegistrationWriter {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityUserMapper entityUserMapper;
+
+    @Autowired
+    private EmailIndexService emailIndexService;
+
+    @Autowired
+    private ValidationUtil validationUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RegistrationMetrics registrationMetrics;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${registration.async.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${registration.async.max-batch-size}")
+    private int maxBatchSize;
+
+    @Value("${registration.async.max-delay}")
+    private Duration maxDelay;
+
+    @Value("${registration.async.shutdown-timeout}")
+    private Duration shutdownTimeout;
+
+    @Value("${registration.async.status-expire-after-write}")
+    private Duration statusExpireAfterWrite;
+
+    @Value("${registration.async.not-found-message}")
+    private String notFoundMessage;
+
+    @Value("${registration.hashing.retry-after-seconds}")
+    private long retryAfterSeconds;
+
+    @Value("${registration.hashing.message}")
+    private String overloadedMessage;
+
+    private BlockingQueue<QueuedRegistration> queue;
+    private Semaphore slots;
+    private final ConcurrentHashMap<String, UUID> reservedEmails = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingIds = ConcurrentHashMap.newKeySet();
+    private Cache<UUID, RegistrationStatusDTO> completed;
+
+    private Thread writer;
+    private volatile boolean accepting;
+
+    private Timer commitTimer;
+    private Timer delayTimer;
+    private DistributionSummary batchSizes;
+
+    /**
+     * A hashed registration waiting to be persisted. The request is a copy without the raw password.
+     */
+    private record QueuedRegistration(UUID id, UserRequestDTO request, String encodedPassword, long enqueuedAt) {}
+
+    /**
+     * Start the writer thread and register its metrics
+     */
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        slots = new Semaphore(queueCapacity);
+        completed = Caffeine.newBuilder()
+            .expireAfterWrite(statusExpireAfterWrite)
+            .build();
+
+        Gauge.builder("registration.async.queue.depth", queue, BlockingQueue::size)
+            .description("Registrations waiting to be persisted")
+            .register(meterRegistry);
+        commitTimer = Timer.builder("registration.async.commit")
+            .description("Time to persist a group of registrations")
+            .register(meterRegistry);
+        delayTimer = Timer.builder("registration.async.delay")
+            .description("Time from the acknowledgement of a registration to its commit")
+            .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("registration.async.batch.size")
+            .description("Registrations persisted per group commit")
+            .register(meterRegistry);
+
+        accepting = true;
+        writer = Thread.ofPlatform().name("registration-writer").daemon(true).start(this::drain);
+    }
+
+    /**
+     * Stop accepting registrations and wait for the queued ones to be persisted. The web server has
+     * already stopped taking requests when this runs.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        writer.join(shutdownTimeout);
+    }
+
+    /**
+     * Take a place in the queue for a registration, before it is validated against the database
+     * and hashed. The place passes to the registration when it is queued, and is freed when the
+     * writer takes it; a registration that is not queued has to release it.
+     * 
+     * @throws ServiceOverloadedException if the queue is full or the application is shutting down
+     */
+    public void reserveSlot() {
+        if (!accepting || !slots.tryAcquire()) {
+            throw new ServiceOverloadedException(overloadedMessage, retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Release the place in the queue of a registration that was not queued
+     */
+    public void releaseSlot() {
+        slots.release();
+    }
+
+    /**
+     * Reserve an email for a registration, before checking it against the database
+     * 
+     * @param email the email to register
+     * @param id the id assigned to the registration
+     * @return false if a queued registration already holds the email
+     */
+    public boolean reserve(String email, UUID id) {
+        return reservedEmails.putIfAbsent(email, id) == null;
+    }
+
+    /**
+     * Release the email of a registration that was not queued
+     * 
+     * @param email the reserved email
+     * @param id the id the email was reserved for
+     */
+    public void release(String email, UUID id) {
+        reservedEmails.remove(email, id);
+    }
+
+    /**
+     * Check whether an email is held by a registration not yet persisted
+     * 
+     * @param email the email to check
+     * @return true if the email is reserved
+     */
+    public boolean isReserved(String email) {
+        return reservedEmails.containsKey(email);
+    }
+
+    /**
+     * Queue a hashed registration whose email and place in the queue are reserved
+     * 
+     * @param id the id assigned to the registration
+     * @param userRequestDTO user registration data
+     * @param encodedPassword the encoded password
+     * @throws ServiceOverloadedException if the application is shutting down
+     */
+    public void enqueue(UUID id, UserRequestDTO userRequestDTO, String encodedPassword) {
+        UserRequestDTO request = UserRequestDTO.builder()
+            .name(userRequestDTO.getName())
+            .email(userRequestDTO.getEmail())
+            .phones(userRequestDTO.getPhones())
+            .build();
+        pendingIds.add(id);
+        if (!accepting || !queue.offer(new QueuedRegistration(id, request, encodedPassword, System.nanoTime()))) {
+            pendingIds.remove(id);
+            throw new ServiceOverloadedException(overloadedMessage, retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Get the state of a registration
+     * 
+     * @param id the id assigned to the registration
+     * @return the registration state
+     * @throws UserNotFoundException if the registration is unknown
+     */
+    public RegistrationStatusDTO status(UUID id) {
+        if (pendingIds.contains(id)) {
+            return pending(id);
+        }
+        RegistrationStatusDTO status = completed.getIfPresent(id);
+        if (status != null) {
+            return status;
+        }
+        // Statuses expire, the user outlives them; the id does not tell its shard
+        if (shardRouter.onEveryShard(() -> userRepository.existsById(id)).contains(true)) {
+            return created(id);
+        }
+        throw new UserNotFoundException(notFoundMessage);
+    }
+
+    /**
+     * Build the response of a registration that was just queued
+     * 
+     * @param id the id assigned to the registration
+     * @return the pending state
+     */
+    public static RegistrationStatusDTO pending(UUID id) {
+        return RegistrationStatusDTO.builder()
+            .id(id)
+            .status(RegistrationStatusDTO.PENDING)
+            .build();
+    }
+
+    /**
+     * Writer loop: wait for a registration, gather whatever else arrives within the maximum delay,
+     * up to the batch size, and commit the group. Runs until shutdown and the queue is empty.
+     */
+    private void drain() {
+        List<QueuedRegistration> batch = new ArrayList<>(maxBatchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                QueuedRegistration first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() == maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    QueuedRegistration next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException ex) {
+                // Nothing interrupts the writer on purpose; commit what was gathered and go on
+            }
+            if (!batch.isEmpty()) {
+                slots.release(batch.size());
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Persist a batch of registrations, in one transaction per shard
+     */
+    private void commit(List<QueuedRegistration> batch) {
+        long start = System.nanoTime();
+        shardRouter.groupByShard(batch, registration -> registration.request().getEmail())
+            .forEach((shard, group) -> shardRouter.onShard(shard, () -> commitGroup(group)));
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+    }
+
+    /**
+     * Persist a group of registrations of the current shard in one transaction. If the group is
+     * rejected (e.g. a synchronous registration took one of the emails) the registrations are
+     * retried one by one so only the offending ones fail. Each user is written with its
+     * UserRegistered event. Users are mapped again for every attempt, since a rolled back persist
+     * leaves generated phone ids behind.
+     */
+    private void commitGroup(List<QueuedRegistration> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            batch.forEach(this::persisted);
+        } catch (RuntimeException groupFailure) {
+            for (QueuedRegistration registration : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(registration)));
+                    persisted(registration);
+                } catch (RuntimeException ex) {
+                    // The flush inside the transaction is not translated, so match the constraint itself
+                    if (ConstraintViolations.isViolationOf(ex, User.EMAIL_CONSTRAINT)) {
+                        rejected(registration, HttpStatus.CONFLICT, validationUtil.getUserMessage(), Outcome.DUPLICATE);
+                    } else {
+                        rejected(registration, HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor",
+                            Outcome.ERROR);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Persist users and then their events, once the users are flushed and carry their creation
+     * timestamp. Both kinds of insert are still batched.
+     */
+    private void persist(List<QueuedRegistration> registrations) {
+        List<User> users = new ArrayList<>(registrations.size());
+        for (QueuedRegistration registration : registrations) {
+            User user = entityUserMapper.toUser(registration.request(), registration.encodedPassword());
+            user.setId(registration.id());
+            entityManager.persist(user);
+            users.add(user);
+        }
+        entityManager.flush();
+        outboxService.usersRegistered(users);
+    }
+
+    private void persisted(QueuedRegistration registration) {
+        emailIndexService.add(registration.request().getEmail());
+        complete(registration, created(registration.id()));
+        registrationMetrics.outcome(Outcome.CREATED);
+    }
+
+    private void rejected(QueuedRegistration registration, HttpStatus status, String mensaje, Outcome outcome) {
+        complete(registration, RegistrationStatusDTO.builder()
+            .id(registration.id())
+            .status(RegistrationStatusDTO.FAILED)
+            .code(status.value())
+            .mensaje(mensaje)
+            .build());
+        registrationMetrics.outcome(outcome);
+    }
+
+    /**
+     * Publish the final state before dropping the pending one, so a poll never misses both, and
+     * release the email last, so it is never free while the user is not yet visible
+     */
+    private void complete(QueuedRegistration registration, RegistrationStatusDTO status) {
+        completed.put(registration.id(), status);
+        pendingIds.remove(registration.id());
+        reservedEmails.remove(registration.request().getEmail(), registration.id());
+        delayTimer.record(System.nanoTime() - registration.enqueuedAt(), TimeUnit.NANOSECONDS);
+    }
+
+    private static RegistrationStatusDTO created(UUID id) {
+        return RegistrationStatusDTO.builder()
+            .id(id)
+            .status(RegistrationStatusDTO.CREATED)
+            .code(HttpStatus.CREATED.value())
+            .build();
+    }
+}
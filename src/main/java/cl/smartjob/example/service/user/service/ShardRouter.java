@@ -0,0 +1,226 @@
+package cl.smartjob.example.service.user.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import cl.smartjob.example.service.user.config.ShardRoutingDataSource;
+import cl.smartjob.example.service.user.config.ShardingProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Router of user data to its shard. A user, its phones and its outbox events live on the shard
+ * picked by a stable hash of the normalized email, so registration, the uniqueness check and the
+ * lookup by email each touch a single database. Reads that cannot be routed by email, the lookup
+ * by id and the listing, are scattered to every shard in parallel and gathered by the caller.
+ * 
+ * The shard is a jump consistent hash of a 64-bit FNV-1a hash of the email, trimmed and lower
+ * cased, so adding a shard only moves the share of the users that goes to the new one. Existing
+ * users are not moved: growing the shard count needs their data migrated first.
+ * 
+ * With a single shard every call runs directly on the calling thread.
+ */
+@Service
+public class ShardRouter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${spring.jpa.hibernate.ddl-auto}")
+    private String ddlAuto;
+
+    private int shardCount;
+    private ExecutorService scatterExecutor;
+
+    /**
+     * Create the schema on every shard but the first, where Hibernate already did, and start the
+     * threads that query the shards
+     */
+    @PostConstruct
+    public void start() {
+        shardCount = shardingProperties.shardCount();
+        if (shardCount == 1) {
+            return;
+        }
+        if (ddlAuto.startsWith("create")) {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            for (int shard = 1; shard < shardCount; shard++) {
+                onShard(shard, () -> sessionFactory.getSchemaManager().exportMappedObjects(true));
+            }
+        }
+        scatterExecutor = Executors.newFixedThreadPool(shardCount,
+            Thread.ofPlatform().name("shard-query-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Stop the threads that query the shards
+     */
+    @PreDestroy
+    public void stop() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Get the number of shards
+     * 
+     * @return the shard count
+     */
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Get the shard of an email
+     * 
+     * @param email the user email
+     * @return the shard number
+     */
+    public int shardOf(String email) {
+        return shardCount == 1 ? 0 : jumpHash(hash(email), shardCount);
+    }
+
+    /**
+     * Group items by the shard of their email
+     * 
+     * @param items the items to group
+     * @param email extracts the email of an item
+     * @return the items of each shard, in their original order, by shard number
+     */
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, String> email) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardOf(email.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Run an action on a shard. Any transaction must be started by the action, since the one in
+     * progress, if any, is bound to the connection of its own shard.
+     * 
+     * @param shard the shard number
+     * @param action the action to run
+     * @return the result of the action
+     * @throws IllegalStateException if a transaction on another shard is in progress
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = ShardRoutingDataSource.currentShard();
+        if (shardCount == 1 || Integer.valueOf(shard).equals(previous)) {
+            return action.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+        }
+        ShardRoutingDataSource.setCurrentShard(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardRoutingDataSource.setCurrentShard(previous);
+        }
+    }
+
+    /**
+     * Run an action without a result on a shard
+     * 
+     * @param shard the shard number
+     * @param action the action to run
+     * @throws IllegalStateException if a transaction on another shard is in progress
+     */
+    public void onShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run an action on the shard of an email
+     * 
+     * @param email the user email
+     * @param action the action to run
+     * @return the result of the action
+     */
+    public <T> T onShardOf(String email, Supplier<T> action) {
+        return onShard(shardOf(email), action);
+    }
+
+    /**
+     * Run an action on every shard, in parallel
+     * 
+     * @param action the action to run
+     * @return the result of each shard, by shard number
+     */
+    public <T> List<T> onEveryShard(Supplier<T> action) {
+        if (shardCount == 1) {
+            return Collections.singletonList(action.get());
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, action), scatterExecutor));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    static long hash(String email) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Jump consistent hash of Lamping and Veach: maps a key to one of a number of buckets, moving
+     * only 1/n of the keys when the n-th bucket is added
+     */
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941143L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
@@ -0,0 +1,49 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cl.smartjob.example.service.user.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that evicts written users from the read cache. The eviction is repeated
+ * after commit, so a read that reloaded the old version while the transaction was open does not
+ * stay cached.
+ */
+@Component
+public class UserCacheListener {
+
+    // Looked up on use, as the listener is created with the EntityManagerFactory the query service
+    // depends on. Injected through the constructor: Hibernate creates its own instance, which in an
+    // AOT build gets no field injection
+    private final ObjectProvider<UserQueryService> userQueryService;
+
+    public UserCacheListener(ObjectProvider<UserQueryService> userQueryService) {
+        this.userQueryService = userQueryService;
+    }
+
+    /**
+     * Evict a user that was inserted, updated or deleted
+     * 
+     * @param user the written user
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userQueryService.getObject().evict(user.getId(), user.getEmail());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userQueryService.getObject().evict(user.getId(), user.getEmail());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.ImportEventDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+
+/**
+ * Service that imports users from a stream of newline-delimited JSON. Input is parsed
+ * incrementally and processed one chunk at a time (validate, hash, batched write), so memory stays
+ * bounded by the chunk size whatever the size of the input. The next chunk is not read until the
+ * previous one has been written and reported, which propagates backpressure to the producer.
+ */
+@Service
+public class UserImportService {
+
+    private static final String INVALID_LINE_MESSAGE = "La línea no contiene un usuario válido";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${registration.batch.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Import users from an NDJSON stream, reporting per-line errors and progress as NDJSON
+     * 
+     * @param input NDJSON stream of UserRequestDTO
+     * @param output NDJSON stream of ImportEventDTO
+     * @return the final summary
+     * @throws IOException if reading the input or writing the report fails
+     */
+    public ImportEventDTO importUsers(InputStream input, OutputStream output) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ImportProgress progress = new ImportProgress();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            List<UserRequestDTO> requests = new ArrayList<>(chunkSize);
+            List<Integer> lines = new ArrayList<>(chunkSize);
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    int line = parser.currentTokenLocation().getLineNr();
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        progress.failed++;
+                        write(writer, generator, error(line, INVALID_LINE_MESSAGE));
+                        continue;
+                    }
+
+                    JsonNode node = objectMapper.readTree(parser);
+                    try {
+                        requests.add(objectMapper.treeToValue(node, UserRequestDTO.class));
+                        lines.add(line);
+                    } catch (JsonProcessingException ex) {
+                        progress.failed++;
+                        write(writer, generator, error(line, INVALID_LINE_MESSAGE));
+                    }
+
+                    if (requests.size() == chunkSize) {
+                        processChunk(requests, lines, progress, writer, generator);
+                    }
+                }
+            } catch (StreamReadException ex) {
+                // Malformed JSON cannot be resynchronized: keep what was read and stop here
+                processChunk(requests, lines, progress, writer, generator);
+                progress.failed++;
+                write(writer, generator, error(ex.getLocation() == null ? null : ex.getLocation().getLineNr(),
+                    "JSON mal formado, la importación se detuvo en esta línea"));
+            }
+            processChunk(requests, lines, progress, writer, generator);
+
+            ImportEventDTO summary = progress.toEvent("summary");
+            write(writer, generator, summary);
+            generator.flush();
+            return summary;
+        }
+    }
+
+    /**
+     * Register the pending chunk, report its failures and progress, and clear it
+     */
+    private void processChunk(List<UserRequestDTO> requests, List<Integer> lines, ImportProgress progress,
+        ObjectWriter writer, JsonGenerator generator) throws IOException {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        List<BatchItemResultDTO> results = userService.registerUsers(requests);
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResultDTO result = results.get(i);
+            if (result.getStatus() == HttpStatus.CREATED.value()) {
+                progress.created++;
+            } else {
+                progress.failed++;
+                write(writer, generator, ImportEventDTO.builder()
+                    .type("error")
+                    .line(lines.get(i))
+                    .status(result.getStatus())
+                    .mensaje(result.getMensaje())
+                    .build());
+            }
+        }
+
+        write(writer, generator, progress.toEvent("progress"));
+        generator.flush();
+        requests.clear();
+        lines.clear();
+    }
+
+    private void write(ObjectWriter writer, JsonGenerator generator, ImportEventDTO event) throws IOException {
+        writer.writeValue(generator, event);
+        generator.writeRaw('\n');
+    }
+
+    private ImportEventDTO error(Integer line, String mensaje) {
+        return ImportEventDTO.builder()
+            .type("error")
+            .line(line)
+            .status(HttpStatus.BAD_REQUEST.value())
+            .mensaje(mensaje)
+            .build();
+    }
+
+    /**
+     * Running counters of an import
+     */
+    private static final class ImportProgress {
+
+        private long created;
+        private long failed;
+
+        private ImportEventDTO toEvent(String type) {
+            return ImportEventDTO.builder()
+                .type(type)
+                .processed(created + failed)
+                .created(created)
+                .failed(failed)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package cl.smartjob.example.service.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.exception.UserNotFoundException;
+import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.mapper.DtoUserMapper;
+import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.util.PageCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service for user reads. Mapped users are kept in a size and TTL bounded cache by id, with a
+ * second cache from email to id, so repeated reads skip the database and the mapping. Entries are
+ * evicted by UserCacheListener whenever a user is written. Missing users are not cached. The
+ * listing bypasses the cache and is paginated by key, not by offset.
+ * 
+ * A lookup by email goes to the shard of the email; a lookup by id and the listing ask every
+ * shard and merge the answers.
+ */
+@Service
+public class UserQueryService {
+
+    private static final String INVALID_CURSOR_MESSAGE = "El cursor de la página no es válido";
+    private static final String INVALID_PAGE_SIZE_MESSAGE = "El tamaño de página debe estar entre 1 y ";
+
+    // The order of the (created, id) index; BINARY(16) ids compare as unsigned bytes
+    private static final Comparator<User> LISTING_ORDER = Comparator.comparing(User::getCreated)
+        .thenComparing(User::getId, UserQueryService::compareUnsigned);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DtoUserMapper dtoUserMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${cache.users.maximum-size}")
+    private long maximumSize;
+
+    @Value("${cache.users.expire-after-write}")
+    private Duration expireAfterWrite;
+
+    @Value("${listing.max-page-size}")
+    private int maxPageSize;
+
+    @Value("${validation.user.not-found-message}")
+    private String notFoundMessage;
+
+    private Cache<UUID, CachedUser> usersById;
+    private Cache<String, UUID> idsByEmail;
+
+    /**
+     * A mapped user with the entity tag of its current version
+     * 
+     * @param user the mapped user
+     * @param etag weak entity tag derived from the last modification
+     */
+    public record CachedUser(UserResponseDTO user, String etag) {}
+
+    /**
+     * The page found on one shard
+     * 
+     * @param ids ids of the page, in listing order
+     * @param users the users of the page, in no particular order
+     */
+    private record ShardPage(List<UUID> ids, List<User> users) {}
+
+    /**
+     * Build the caches and register their metrics
+     */
+    @PostConstruct
+    public void initializeCaches() {
+        usersById = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        idsByEmail = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.by-email");
+    }
+
+    /**
+     * Find a user by id
+     * 
+     * @param id the user id
+     * @return the user and its entity tag
+     * @throws UserNotFoundException if no user has that id
+     */
+    public CachedUser findById(UUID id) {
+        // Concurrent misses of the same id share one load
+        CachedUser cached = usersById.get(id, key -> shardRouter.onEveryShard(() -> userRepository.findWithPhonesById(key))
+            .stream()
+            .flatMap(Optional::stream)
+            .findFirst()
+            .map(this::toCachedUser)
+            .orElse(null));
+        if (cached == null) {
+            throw new UserNotFoundException(notFoundMessage);
+        }
+        return cached;
+    }
+
+    /**
+     * Find a user by email
+     * 
+     * @param email the user email
+     * @return the user and its entity tag
+     * @throws UserNotFoundException if no user has that email
+     */
+    public CachedUser findByEmail(String email) {
+        UUID id = idsByEmail.getIfPresent(email);
+        if (id != null) {
+            CachedUser cached = usersById.getIfPresent(id);
+            if (cached != null && email.equals(cached.user().getEmail())) {
+                return cached;
+            }
+        }
+
+        User user = shardRouter.onShardOf(email, () -> userRepository.findWithPhonesByEmail(email))
+            .orElseThrow(() -> new UserNotFoundException(notFoundMessage));
+        CachedUser cached = toCachedUser(user);
+        usersById.put(user.getId(), cached);
+        idsByEmail.put(email, user.getId());
+        return cached;
+    }
+
+    /**
+     * Write a page of the user listing, in (created, id) order, as a JSON object with the users
+     * and the cursor of the next page, null on the last one. Every shard locates its own page with
+     * a keyset seek and fetches its users with their phones in a second query; the pages are merged
+     * and cut to the page size. Each user is mapped and written as it is reached, without building
+     * the response in memory.
+     * 
+     * @param after cursor returned with the previous page, or null for the first one
+     * @param pageSize maximum number of users in the page
+     * @param output stream the page is written to
+     * @throws ValidationException if the cursor or the page size are not valid
+     * @throws IOException if writing the page fails
+     */
+    public void writePage(String after, int pageSize, OutputStream output) throws IOException {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ValidationException(INVALID_PAGE_SIZE_MESSAGE + maxPageSize);
+        }
+        PageCursor cursor;
+        try {
+            cursor = after == null || after.isEmpty() ? null : PageCursor.decode(after);
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException(INVALID_CURSOR_MESSAGE);
+        }
+
+        List<ShardPage> pages = shardRouter.onEveryShard(() -> findPage(cursor, pageSize));
+        int found = pages.stream().mapToInt(page -> page.ids().size()).sum();
+        List<User> users = pages.stream()
+            .flatMap(page -> page.users().stream())
+            .sorted(LISTING_ORDER)
+            .limit(pageSize)
+            .toList();
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("users");
+            User last = null;
+            for (User user : users) {
+                writer.writeValue(generator, dtoUserMapper.toResponseDTO(user));
+                last = user;
+            }
+            generator.writeEndArray();
+            generator.writeStringField("next", found >= pageSize && last != null
+                ? new PageCursor(last.getCreated(), last.getId()).encode()
+                : null);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Evict a written user from the caches
+     * 
+     * @param id the user id
+     * @param email the user email
+     */
+    public void evict(UUID id, String email) {
+        if (id != null) {
+            usersById.invalidate(id);
+        }
+        if (email != null) {
+            idsByEmail.invalidate(email);
+        }
+    }
+
+    /**
+     * Compute the entity tag of a user version
+     * 
+     * @param modified last modification of the user
+     * @return weak entity tag
+     */
+    public static String etag(LocalDateTime modified) {
+        long micros = modified.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + modified.getNano() / 1_000;
+        return "W/\"" + Long.toHexString(micros) + "\"";
+    }
+
+    /**
+     * Locate a page on the current shard and fetch its users with their phones. Users deleted
+     * between the two queries are left out.
+     */
+    private ShardPage findPage(PageCursor cursor, int pageSize) {
+        List<UUID> ids = cursor == null
+            ? userRepository.findPageIds(Limit.of(pageSize))
+            : userRepository.findPageIdsAfter(cursor.created(), cursor.id(), Limit.of(pageSize));
+        List<User> users = ids.isEmpty() ? List.of() : userRepository.findAllWithPhonesByIdIn(ids);
+        return new ShardPage(ids, users);
+    }
+
+    private CachedUser toCachedUser(User user) {
+        return new CachedUser(dtoUserMapper.toResponseDTO(user), etag(user.getModified()));
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
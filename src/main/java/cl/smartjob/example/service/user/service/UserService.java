@@ -1,25 +1,51 @@
 package cl.smartjob.example.service.user.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.RegistrationStatusDTO;
 import cl.smartjob.example.service.user.dto.UserRequestDTO;
 import cl.smartjob.example.service.user.dto.UserResponseDTO;
 import cl.smartjob.example.service.user.entity.User;
 import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
 import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.jfr.ExistsCheckEvent;
+import cl.smartjob.example.service.user.jfr.HashEvent;
+import cl.smartjob.example.service.user.jfr.MapEvent;
+import cl.smartjob.example.service.user.jfr.PersistEvent;
+import cl.smartjob.example.service.user.jfr.RegistrationPhaseEvent;
+import cl.smartjob.example.service.user.jfr.ValidateEvent;
 import cl.smartjob.example.service.user.mapper.DtoUserMapper;
 import cl.smartjob.example.service.user.mapper.EntityUserMapper;
 import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.service.RegistrationMetrics.Outcome;
+import cl.smartjob.example.service.user.service.RegistrationMetrics.Phase;
+import cl.smartjob.example.service.user.util.ConstraintViolations;
+import cl.smartjob.example.service.user.util.UuidV7;
 import cl.smartjob.example.service.user.util.ValidationUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 /**
- * Service class for user operations
+ * Service class for user operations. Validation, password hashing and mapping run outside of any
+ * transaction; only the writes open one, so a pooled connection is held just for the inserts.
  */
 @Service
-@Transactional
 public class UserService {
 
     @Autowired
@@ -35,7 +61,34 @@ public class UserService {
     private ValidationUtil validationUtil;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EmailIndexService emailIndexService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RegistrationMetrics registrationMetrics;
+
+    @Autowired
+    private RegistrationLog registrationLog;
+
+    @Autowired
+    private RegistrationWriter registrationWriter;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${registration.batch.chunk-size}")
+    private int batchChunkSize;
 
     /**
      * Register a new user
@@ -44,33 +97,366 @@ public class UserService {
      * @return registered user response
      * @throws EmailAlreadyExistsException if email already exists
      * @throws ValidationException if validation fails
+     * @throws ServiceOverloadedException if the password hashing pool is saturated
      */
     public UserResponseDTO registerUser(UserRequestDTO userRequestDTO) {
-        // Validate email format
+        Outcome outcome = Outcome.ERROR;
+        long registration = RegistrationPhaseEvent.nextRegistration();
+        RegistrationPhaseEvent event = new ValidateEvent();
+        event.begin();
+        long phaseStart = registrationMetrics.start();
+        long[] sample = registrationLog.sample();
+        try {
+            // Validate email format
+            if (!validationUtil.isValidEmail(userRequestDTO.getEmail())) {
+                outcome = Outcome.INVALID_EMAIL;
+                throw new ValidationException(validationUtil.getEmailMessage());
+            }
+
+            // Validate password format
+            if (!validationUtil.isValidPassword(userRequestDTO.getPassword())) {
+                outcome = Outcome.INVALID_PASSWORD;
+                throw new ValidationException(validationUtil.getPasswordMessage());
+            }
+            phaseStart = registrationMetrics.record(Phase.VALIDATION, phaseStart, sample);
+            event = event.next(new ExistsCheckEvent(), registration);
+
+            // Reject a known duplicate before paying for the hash. This is a shortcut, not the
+            // guarantee: the unique constraint on the email decides, and new emails skip the query
+            if (registrationWriter.isReserved(userRequestDTO.getEmail())) {
+                outcome = Outcome.DUPLICATE;
+                throw new EmailAlreadyExistsException(validationUtil.getUserMessage());
+            }
+            if (emailIndexService.mightContain(userRequestDTO.getEmail())) {
+                if (shardRouter.onShardOf(userRequestDTO.getEmail(),
+                    () -> userRepository.existsByEmail(userRequestDTO.getEmail()))) {
+                    outcome = Outcome.DUPLICATE;
+                    throw new EmailAlreadyExistsException(validationUtil.getUserMessage());
+                }
+                emailIndexService.recordFalsePositive();
+            }
+            phaseStart = registrationMetrics.record(Phase.EMAIL_CHECK, phaseStart, sample);
+            event = event.next(new HashEvent(), registration);
+
+            // Encode password on the hashing pool
+            String encodedPassword;
+            try {
+                encodedPassword = passwordHashingService.encode(userRequestDTO.getPassword());
+            } catch (ServiceOverloadedException ex) {
+                outcome = Outcome.OVERLOADED;
+                throw ex;
+            }
+            phaseStart = registrationMetrics.record(Phase.HASHING, phaseStart, sample);
+            event = event.next(new MapEvent(), registration);
+
+            // Convert DTO to entity
+            User user = entityUserMapper.toUser(userRequestDTO, encodedPassword);
+            long mappingNanos = System.nanoTime() - phaseStart;
+            phaseStart += mappingNanos;
+            event = event.next(new PersistEvent(), registration);
+
+            // Save user and its UserRegistered event in a short transaction on the shard of the email
+            User savedUser;
+            try {
+                savedUser = shardRouter.onShardOf(user.getEmail(), () -> transactionTemplate.execute(status -> {
+                    // Flushed first so the event carries the creation timestamp
+                    User saved = userRepository.saveAndFlush(user);
+                    outboxService.userRegistered(saved);
+                    return saved;
+                }));
+            } catch (DataIntegrityViolationException ex) {
+                // A concurrent registration of the same email committed first
+                if (ConstraintViolations.isViolationOf(ex, User.EMAIL_CONSTRAINT)) {
+                    outcome = Outcome.DUPLICATE;
+                    throw new EmailAlreadyExistsException(validationUtil.getUserMessage(), ex);
+                }
+                throw ex;
+            }
+            emailIndexService.add(savedUser.getEmail());
+            phaseStart = registrationMetrics.record(Phase.SAVE, phaseStart, sample);
+            event = event.next(new MapEvent(), registration);
+
+            // Convert entity to response DTO
+            UserResponseDTO response = dtoUserMapper.toResponseDTO(savedUser);
+            registrationMetrics.recordNanos(Phase.MAPPING, mappingNanos + System.nanoTime() - phaseStart, sample);
+            outcome = Outcome.CREATED;
+            return response;
+        } finally {
+            event.finish(registration, outcome.tag());
+            registrationMetrics.outcome(outcome);
+            registrationLog.log("create", outcome.tag(), sample);
+        }
+    }
+
+    /**
+     * Register a new user asynchronously. The registration is validated, checked and hashed like a
+     * synchronous one, then queued with its user id assigned and persisted by RegistrationWriter in
+     * a group commit. Its email stays reserved until then, so it cannot be registered twice. Its
+     * place in the write queue is taken right after validation, so a full queue costs no hash.
+     * 
+     * @param userRequestDTO user registration data
+     * @return the id of the registration, pending
+     * @throws EmailAlreadyExistsException if email already exists or is queued
+     * @throws ValidationException if validation fails
+     * @throws ServiceOverloadedException if the hashing pool or the write queue are saturated
+     */
+    public RegistrationStatusDTO registerUserAsync(UserRequestDTO userRequestDTO) {
+        Outcome outcome = Outcome.ERROR;
+        boolean queued = false;
+        String email = userRequestDTO.getEmail();
+        long registration = RegistrationPhaseEvent.nextRegistration();
+        RegistrationPhaseEvent event = new ValidateEvent();
+        event.begin();
+        long phaseStart = registrationMetrics.start();
+        long[] sample = registrationLog.sample();
+        try {
+            if (!validationUtil.isValidEmail(email)) {
+                outcome = Outcome.INVALID_EMAIL;
+                throw new ValidationException(validationUtil.getEmailMessage());
+            }
+            if (!validationUtil.isValidPassword(userRequestDTO.getPassword())) {
+                outcome = Outcome.INVALID_PASSWORD;
+                throw new ValidationException(validationUtil.getPasswordMessage());
+            }
+            phaseStart = registrationMetrics.record(Phase.VALIDATION, phaseStart, sample);
+            event = event.next(new ExistsCheckEvent(), registration);
+
+            // Take a place in the write queue first, so a full queue rejects the registration
+            // before it costs an existence check and a hash
+            UUID id = UuidV7.generate();
+            try {
+                registrationWriter.reserveSlot();
+            } catch (ServiceOverloadedException ex) {
+                outcome = Outcome.OVERLOADED;
+                throw ex;
+            }
+            try {
+                // Reserve the email before the existence check, so no registration of it can slip
+                // in between the check and the commit
+                if (!registrationWriter.reserve(email, id)) {
+                    outcome = Outcome.DUPLICATE;
+                    throw new EmailAlreadyExistsException(validationUtil.getUserMessage());
+                }
+                try {
+                    if (emailIndexService.mightContain(email)) {
+                        if (shardRouter.onShardOf(email, () -> userRepository.existsByEmail(email))) {
+                            outcome = Outcome.DUPLICATE;
+                            throw new EmailAlreadyExistsException(validationUtil.getUserMessage());
+                        }
+                        emailIndexService.recordFalsePositive();
+                    }
+                    phaseStart = registrationMetrics.record(Phase.EMAIL_CHECK, phaseStart, sample);
+                    event = event.next(new HashEvent(), registration);
+
+                    String encodedPassword;
+                    try {
+                        encodedPassword = passwordHashingService.encode(userRequestDTO.getPassword());
+                        phaseStart = registrationMetrics.record(Phase.HASHING, phaseStart, sample);
+                        registrationWriter.enqueue(id, userRequestDTO, encodedPassword);
+                    } catch (ServiceOverloadedException ex) {
+                        outcome = Outcome.OVERLOADED;
+                        throw ex;
+                    }
+                    queued = true;
+                    return RegistrationWriter.pending(id);
+                } finally {
+                    if (!queued) {
+                        registrationWriter.release(email, id);
+                    }
+                }
+            } finally {
+                if (!queued) {
+                    registrationWriter.releaseSlot();
+                }
+            }
+        } finally {
+            // A queued registration gets its outcome when it is persisted
+            event.finish(registration, queued ? RegistrationPhaseEvent.PASSED : outcome.tag());
+            if (!queued) {
+                registrationMetrics.outcome(outcome);
+            }
+            registrationLog.log("async", queued ? RegistrationLog.QUEUED : outcome.tag(), sample);
+        }
+    }
+
+    /**
+     * Register a list of users. Items are processed in chunks, each chunk persisted in a single
+     * transaction with JDBC batched inserts. A failing item is reported in its own result and does
+     * not abort the rest of the chunk.
+     * 
+     * @param userRequestDTOs user registration data
+     * @return one result per item, in the same order as the request
+     */
+    public List<BatchItemResultDTO> registerUsers(List<UserRequestDTO> userRequestDTOs) {
+        List<BatchItemResultDTO> results = new ArrayList<>(userRequestDTOs.size());
+        for (int from = 0; from < userRequestDTOs.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, userRequestDTOs.size());
+            results.addAll(registerChunk(userRequestDTOs.subList(from, to), from));
+        }
+        return results;
+    }
+
+    /**
+     * Validate, hash and persist a single chunk
+     * 
+     * @param chunk user registration data
+     * @param offset index of the first item of the chunk in the whole request
+     * @return one result per item of the chunk
+     */
+    private List<BatchItemResultDTO> registerChunk(List<UserRequestDTO> chunk, int offset) {
+        BatchItemResultDTO[] results = new BatchItemResultDTO[chunk.size()];
+
+        // Validate every item before touching the database
+        List<Integer> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                validate(chunk.get(i));
+                valid.add(i);
+            } catch (ValidationException ex) {
+                results[i] = failure(offset + i, HttpStatus.BAD_REQUEST, ex.getMessage());
+                registrationMetrics.outcome(invalidOutcome(ex.getMessage()));
+            }
+        }
+
+        // Check uniqueness within the chunk and, for the emails the index cannot rule out, against
+        // the database in one query per shard
+        Set<String> candidates = valid.stream()
+            .map(i -> chunk.get(i).getEmail())
+            .filter(emailIndexService::mightContain)
+            .collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>();
+        shardRouter.groupByShard(candidates, Function.identity()).forEach((shard, emails) ->
+            existing.addAll(shardRouter.onShard(shard, () -> userRepository.findExistingEmails(emails))));
+        Set<String> seen = new HashSet<>();
+
+        List<Integer> positions = new ArrayList<>(valid.size());
+        List<String> rawPasswords = new ArrayList<>(valid.size());
+        for (int i : valid) {
+            String email = chunk.get(i).getEmail();
+            if (existing.contains(email) || registrationWriter.isReserved(email) || !seen.add(email)) {
+                results[i] = failure(offset + i, HttpStatus.CONFLICT, validationUtil.getUserMessage());
+                registrationMetrics.outcome(Outcome.DUPLICATE);
+            } else {
+                positions.add(i);
+                rawPasswords.add(chunk.get(i).getPassword());
+            }
+        }
+
+        // Hash the accepted items with bounded parallelism, then persist them shard by shard
+        if (!positions.isEmpty()) {
+            List<String> encodedPasswords = passwordHashingService.encodeAll(rawPasswords);
+            List<Integer> accepted = IntStream.range(0, positions.size()).boxed().toList();
+            shardRouter.groupByShard(accepted, p -> chunk.get(positions.get(p)).getEmail()).forEach((shard, group) -> {
+                List<Integer> shardPositions = group.stream().map(positions::get).toList();
+                List<String> shardPasswords = group.stream().map(encodedPasswords::get).toList();
+                shardRouter.onShard(shard, () -> persistChunk(chunk, offset, shardPositions, shardPasswords, results));
+            });
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Persist the accepted items of a chunk that belong to the current shard in one transaction. If
+     * the batch is rejected by the database (e.g. a concurrent registration took one of the emails)
+     * the items are retried one by one so only the offending ones fail.
+     */
+    private void persistChunk(List<UserRequestDTO> chunk, int offset, List<Integer> positions,
+        List<String> encodedPasswords, BatchItemResultDTO[] results) {
+        try {
+            List<User> users = new ArrayList<>(positions.size());
+            for (int p = 0; p < positions.size(); p++) {
+                users.add(entityUserMapper.toUser(chunk.get(positions.get(p)), encodedPasswords.get(p)));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                userRepository.flush();
+                outboxService.usersRegistered(users);
+            });
+            for (int p = 0; p < positions.size(); p++) {
+                int i = positions.get(p);
+                emailIndexService.add(users.get(p).getEmail());
+                results[i] = success(offset + i, users.get(p));
+                registrationMetrics.outcome(Outcome.CREATED);
+            }
+        } catch (RuntimeException batchFailure) {
+            for (int p = 0; p < positions.size(); p++) {
+                int i = positions.get(p);
+                User user = entityUserMapper.toUser(chunk.get(i), encodedPasswords.get(p));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        userRepository.saveAndFlush(user);
+                        outboxService.userRegistered(user);
+                    });
+                    emailIndexService.add(user.getEmail());
+                    results[i] = success(offset + i, user);
+                    registrationMetrics.outcome(Outcome.CREATED);
+                } catch (RuntimeException ex) {
+                    if (ConstraintViolations.isViolationOf(ex, User.EMAIL_CONSTRAINT)) {
+                        results[i] = failure(offset + i, HttpStatus.CONFLICT, validationUtil.getUserMessage());
+                        registrationMetrics.outcome(Outcome.DUPLICATE);
+                    } else {
+                        results[i] = failure(offset + i, HttpStatus.INTERNAL_SERVER_ERROR,
+                            "Error interno del servidor");
+                        registrationMetrics.outcome(Outcome.ERROR);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply bean validation and the configured email and password rules to a single item
+     * 
+     * @param userRequestDTO user registration data
+     * @throws ValidationException if validation fails
+     */
+    private void validate(UserRequestDTO userRequestDTO) {
+        if (userRequestDTO == null) {
+            throw new ValidationException("La solicitud no puede ser null");
+        }
+
+        Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(userRequestDTO);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(", ")));
+        }
+
         if (!validationUtil.isValidEmail(userRequestDTO.getEmail())) {
             throw new ValidationException(validationUtil.getEmailMessage());
         }
 
-        // Validate password format
         if (!validationUtil.isValidPassword(userRequestDTO.getPassword())) {
             throw new ValidationException(validationUtil.getPasswordMessage());
         }
+    }
 
-        // Check if email already exists
-        if (userRepository.existsByEmail(userRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistsException(validationUtil.getUserMessage());
+    /**
+     * Outcome of a batch item rejected by validate(), told apart by the configured messages
+     */
+    private Outcome invalidOutcome(String message) {
+        if (message.equals(validationUtil.getEmailMessage())) {
+            return Outcome.INVALID_EMAIL;
         }
+        if (message.equals(validationUtil.getPasswordMessage())) {
+            return Outcome.INVALID_PASSWORD;
+        }
+        return Outcome.INVALID_REQUEST;
+    }
 
-        // Encode password
-        String encodedPassword = passwordEncoder.encode(userRequestDTO.getPassword());
-
-        // Convert DTO to entity
-        User user = entityUserMapper.toUser(userRequestDTO, encodedPassword);
-
-        // Save user
-        User savedUser = userRepository.save(user);
+    private BatchItemResultDTO success(int index, User user) {
+        return BatchItemResultDTO.builder()
+            .index(index)
+            .status(HttpStatus.CREATED.value())
+            .user(dtoUserMapper.toResponseDTO(user))
+            .build();
+    }
 
-        // Convert entity to response DTO
-        return dtoUserMapper.toResponseDTO(savedUser);
+    private BatchItemResultDTO failure(int index, HttpStatus status, String mensaje) {
+        return BatchItemResultDTO.builder()
+            .index(index)
+            .status(status.value())
+            .mensaje(mensaje)
+            .build();
     }
 }
@@ -0,0 +1,378 @@
+package cl.smartjob.example.service.user.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass, allocation-free matcher for the validation rules expressed as regexes in the
+ * configuration: leading required-character lookaheads such as {@code (?=.*[A-Z])}, followed by a
+ * sequence of ASCII characters or character classes with quantifiers, as in
+ * {@code [A-Za-z\d@$!%*?&-]{8,}} or {@code [a-z0-9.]+@[a-z0-9.-]+\.[a-z]{2,}}.
+ * <p>
+ * The sequence is compiled into a position automaton whose active states fit in a single long, and
+ * the required classes into a bitmask, so matching scans the input once with no backtracking and
+ * no allocation. Results are the same as {@code Pattern.compile(regex).matcher(input).matches()}.
+ * Regexes outside of this subset are not compiled and must be evaluated with java.util.regex.
+ */
+public final class CompiledValidator {
+
+    private static final int ASCII = 128;
+    private static final int MAX_SLOTS = 63;
+    private static final int MAX_REQUIREMENTS = 64;
+
+    /** Per ASCII char, the slots whose class accepts it */
+    private final long[] advance = new long[ASCII];
+    /** Per ASCII char, the required classes it satisfies */
+    private final long[] satisfies = new long[ASCII];
+    /** Per slot, the active states after consuming a char in it */
+    private final long[] onMatch;
+    private final long start;
+    private final long accept;
+    private final long allRequired;
+
+    private CompiledValidator(List<Slot> slots, List<long[]> requirements) {
+        int size = slots.size();
+        long[] closure = new long[size + 1];
+        closure[size] = 1L << size;
+        for (int p = size - 1; p >= 0; p--) {
+            closure[p] = (1L << p) | (slots.get(p).optional ? closure[p + 1] : 0);
+        }
+
+        onMatch = new long[size];
+        for (int p = 0; p < size; p++) {
+            Slot slot = slots.get(p);
+            onMatch[p] = slot.loop ? closure[p] : closure[p + 1];
+            for (int c = 0; c < ASCII; c++) {
+                if (contains(slot.charClass, c)) {
+                    advance[c] |= 1L << p;
+                }
+            }
+        }
+
+        for (int r = 0; r < requirements.size(); r++) {
+            for (int c = 0; c < ASCII; c++) {
+                if (contains(requirements.get(r), c)) {
+                    satisfies[c] |= 1L << r;
+                }
+            }
+        }
+
+        start = closure[0];
+        accept = 1L << size;
+        allRequired = requirements.size() == MAX_REQUIREMENTS ? -1L : (1L << requirements.size()) - 1;
+    }
+
+    /**
+     * Compile a regex into a validator
+     *
+     * @param regex the regex to compile
+     * @return the validator, or null if the regex is outside of the supported subset
+     */
+    public static CompiledValidator compile(String regex) {
+        return new Parser(regex).parse();
+    }
+
+    /**
+     * Check whether the whole input matches
+     *
+     * @param input the input to check
+     * @return true if it matches, false if it does not or is null
+     */
+    public boolean matches(CharSequence input) {
+        if (input == null) {
+            return false;
+        }
+
+        long state = start;
+        long satisfied = 0;
+        // Lookaheads use '.', which stops at the first line terminator
+        boolean firstLine = true;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= ASCII) {
+                return false;
+            }
+            if (firstLine) {
+                satisfied |= satisfies[c];
+                firstLine = c != '\n' && c != '\r';
+            }
+
+            long matched = state & advance[c];
+            long next = 0;
+            while (matched != 0) {
+                next |= onMatch[Long.numberOfTrailingZeros(matched)];
+                matched &= matched - 1;
+            }
+            if (next == 0) {
+                return false;
+            }
+            state = next;
+        }
+        return (state & accept) != 0 && satisfied == allRequired;
+    }
+
+    private static boolean contains(long[] charClass, int c) {
+        return (charClass[c >>> 6] & (1L << c)) != 0;
+    }
+
+    /**
+     * A position of the automaton: one repetition of a character class
+     */
+    private record Slot(long[] charClass, boolean optional, boolean loop) {}
+
+    /**
+     * Recursive descent parser of the supported regex subset. Any construct outside of it makes
+     * parse() return null.
+     */
+    private static final class Parser {
+
+        private final String regex;
+        private int pos;
+
+        private Parser(String regex) {
+            this.regex = regex;
+        }
+
+        private CompiledValidator parse() {
+            if (regex == null) {
+                return null;
+            }
+            if (peek() == '^') {
+                pos++;
+            }
+
+            List<long[]> requirements = new ArrayList<>();
+            while (regex.startsWith("(?=.*", pos)) {
+                pos += 5;
+                if (peek() == '?') {
+                    pos++;
+                }
+                long[] charClass = atom();
+                if (charClass == null || peek() != ')' || requirements.size() == MAX_REQUIREMENTS) {
+                    return null;
+                }
+                pos++;
+                requirements.add(charClass);
+            }
+
+            List<Slot> slots = new ArrayList<>();
+            while (pos < regex.length()) {
+                if (peek() == '$' && pos == regex.length() - 1) {
+                    pos++;
+                    break;
+                }
+                long[] charClass = atom();
+                if (charClass == null || !quantified(charClass, slots) || slots.size() > MAX_SLOTS) {
+                    return null;
+                }
+            }
+            return new CompiledValidator(slots, requirements);
+        }
+
+        /**
+         * Parse an optional quantifier and add the slots of the quantified class
+         */
+        private boolean quantified(long[] charClass, List<Slot> slots) {
+            int min = 1;
+            int max = 1;
+            char c = peek();
+            if (c == '*' || c == '+' || c == '?') {
+                pos++;
+                min = c == '+' ? 1 : 0;
+                max = c == '?' ? 1 : -1;
+            } else if (c == '{') {
+                pos++;
+                min = number();
+                max = min;
+                if (peek() == ',') {
+                    pos++;
+                    max = peek() == '}' ? -1 : number();
+                }
+                if (min < 0 || (max != -1 && max < min) || peek() != '}') {
+                    return false;
+                }
+                pos++;
+            }
+            if (c == '*' || c == '+' || c == '?' || c == '{') {
+                if (peek() == '+') {
+                    // Possessive quantifiers can reject inputs a backtracking match accepts
+                    return false;
+                }
+                if (peek() == '?') {
+                    // Reluctant quantifiers do not change whether the whole input matches
+                    pos++;
+                }
+            }
+
+            if (min > MAX_SLOTS || max > MAX_SLOTS) {
+                return false;
+            }
+            for (int i = 0; i < min; i++) {
+                slots.add(new Slot(charClass, false, false));
+            }
+            if (max == -1) {
+                slots.add(new Slot(charClass, true, true));
+            } else {
+                for (int i = min; i < max; i++) {
+                    slots.add(new Slot(charClass, true, false));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parse a character class, an escape or a literal ASCII char
+         */
+        private long[] atom() {
+            char c = next();
+            if (c == '[') {
+                return characterClass();
+            }
+            if (c == '\\') {
+                return escape();
+            }
+            if (c >= ASCII || "^$.|?*+()[]{}".indexOf(c) >= 0) {
+                return null;
+            }
+            return single(c);
+        }
+
+        private long[] characterClass() {
+            if (peek() == '^' || peek() == ']') {
+                return null;
+            }
+            long[] charClass = new long[2];
+            while (pos < regex.length() && peek() != ']') {
+                char c = next();
+                if (c == '[' || (c == '&' && peek() == '&')) {
+                    return null;
+                }
+                if (c == '\\') {
+                    long[] escaped = escape();
+                    if (escaped == null) {
+                        return null;
+                    }
+                    if (Long.bitCount(escaped[0]) + Long.bitCount(escaped[1]) > 1) {
+                        // A predefined class cannot start a range
+                        if (peek() == '-' && peekAt(1) != ']') {
+                            return null;
+                        }
+                        union(charClass, escaped);
+                        continue;
+                    }
+                    c = (char) first(escaped);
+                }
+                if (c >= ASCII) {
+                    return null;
+                }
+
+                if (peek() == '-' && peekAt(1) != ']' && peekAt(1) != 0) {
+                    pos++;
+                    char end = next();
+                    if (end == '\\') {
+                        long[] escaped = escape();
+                        if (escaped == null || Long.bitCount(escaped[0]) + Long.bitCount(escaped[1]) != 1) {
+                            return null;
+                        }
+                        end = (char) first(escaped);
+                    }
+                    if (end >= ASCII || end < c || end == '[') {
+                        return null;
+                    }
+                    for (char r = c; r <= end; r++) {
+                        charClass[r >>> 6] |= 1L << r;
+                    }
+                } else {
+                    charClass[c >>> 6] |= 1L << c;
+                }
+            }
+            if (next() != ']') {
+                return null;
+            }
+            return charClass;
+        }
+
+        private long[] escape() {
+            char c = next();
+            switch (c) {
+                case 'd':
+                    return range('0', '9');
+                case 'w': {
+                    long[] word = range('a', 'z');
+                    union(word, range('A', 'Z'));
+                    union(word, range('0', '9'));
+                    union(word, single('_'));
+                    return word;
+                }
+                case 's': {
+                    long[] space = single(' ');
+                    for (char s : new char[] {'\t', '\n', '\u000B', '\f', '\r'}) {
+                        union(space, single(s));
+                    }
+                    return space;
+                }
+                case 't':
+                    return single('\t');
+                case 'n':
+                    return single('\n');
+                case 'r':
+                    return single('\r');
+                case 'f':
+                    return single('\f');
+                default:
+                    // Escaped letters and digits are classes, back references or quotes
+                    if (c == 0 || c >= ASCII || Character.isLetterOrDigit(c)) {
+                        return null;
+                    }
+                    return single(c);
+            }
+        }
+
+        private int number() {
+            int start = pos;
+            int value = 0;
+            while (Character.isDigit(peek()) && pos - start < 4) {
+                value = value * 10 + (next() - '0');
+            }
+            return pos == start ? -1 : value;
+        }
+
+        private char peek() {
+            return peekAt(0);
+        }
+
+        private char peekAt(int offset) {
+            int index = pos + offset;
+            return index < regex.length() ? regex.charAt(index) : 0;
+        }
+
+        private char next() {
+            return pos < regex.length() ? regex.charAt(pos++) : 0;
+        }
+
+        private static long[] single(char c) {
+            long[] charClass = new long[2];
+            charClass[c >>> 6] |= 1L << c;
+            return charClass;
+        }
+
+        private static long[] range(char from, char to) {
+            long[] charClass = new long[2];
+            for (char c = from; c <= to; c++) {
+                charClass[c >>> 6] |= 1L << c;
+            }
+            return charClass;
+        }
+
+        private static void union(long[] target, long[] source) {
+            target[0] |= source[0];
+            target[1] |= source[1];
+        }
+
+        private static int first(long[] charClass) {
+            return charClass[0] != 0
+                ? Long.numberOfTrailingZeros(charClass[0])
+                : 64 + Long.numberOfTrailingZeros(charClass[1]);
+        }
+    }
+}
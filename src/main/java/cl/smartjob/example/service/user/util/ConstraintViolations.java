@@ -0,0 +1,39 @@
+package cl.smartjob.example.service.user.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Identifies the database constraint behind a failed write. Hibernate extracts the constraint
+ * name from the vendor error, which usually decorates it (schema prefix, generated index suffix,
+ * quotes, upper case), so the name is matched as a case-insensitive substring.
+ * 
+ * The cause chain is walked because the violation arrives wrapped differently depending on where
+ * it surfaced: translated by a repository, raised by a flush of the entity manager or at commit.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {}
+
+    /**
+     * Check whether a failure was caused by the violation of a given constraint
+     * 
+     * @param failure the exception thrown by the write
+     * @param constraintName name of the constraint, as declared in the mapping
+     * @return true if the named constraint was violated
+     */
+    public static boolean isViolationOf(Throwable failure, String constraintName) {
+        String expected = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String violated = violation.getConstraintName();
+                return violated != null && violated.toLowerCase(Locale.ROOT).contains(expected);
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package cl.smartjob.example.service.user.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Formats the API reads and writes its DTOs in: JSON, the default, and binary encodings of the
+ * same Jackson model, Smile and CBOR, for callers that send them as Content-Type and ask for them
+ * in Accept. Each format has its own ObjectMapper, configured like the JSON one.
+ */
+public final class ContentFormats {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    /**
+     * Create the formats
+     * 
+     * @param json mapper of the default format
+     * @param smile mapper with a Smile factory
+     * @param cbor mapper with a CBOR factory
+     */
+    public ContentFormats(ObjectMapper json, ObjectMapper smile, ObjectMapper cbor) {
+        // In order of preference, for clients that accept several
+        mappers.put(MediaType.APPLICATION_JSON, json);
+        mappers.put(SMILE, smile);
+        mappers.put(MediaType.APPLICATION_CBOR, cbor);
+    }
+
+    /**
+     * Get the supported media types, the default first
+     * 
+     * @return the media types
+     */
+    public List<MediaType> mediaTypes() {
+        return List.copyOf(mappers.keySet());
+    }
+
+    /**
+     * Get the mapper of a format
+     * 
+     * @param mediaType one of the supported media types
+     * @return the mapper
+     */
+    public ObjectMapper mapper(MediaType mediaType) {
+        return mappers.get(mediaType);
+    }
+
+    /**
+     * Pick the format of a response from an Accept header, by quality and then by the order of
+     * preference. A missing, malformed or unsupported header gets JSON.
+     * 
+     * @param accept value of the Accept header, may be null
+     * @return one of the supported media types
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+            // Throws on more media types than it sorts, which is treated as malformed too
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException ex) {
+            return MediaType.APPLICATION_JSON;
+        }
+        for (MediaType candidate : accepted) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType supported : mappers.keySet()) {
+                if (candidate.includes(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Get the parser factory of a request body from its Content-Type. A missing or unsupported
+     * type gets the JSON one.
+     * 
+     * @param contentType value of the Content-Type header, may be null
+     * @return the factory
+     */
+    public JsonFactory factory(String contentType) {
+        if (contentType != null) {
+            try {
+                MediaType type = MediaType.parseMediaType(contentType);
+                for (Map.Entry<MediaType, ObjectMapper> format : mappers.entrySet()) {
+                    if (format.getKey().isCompatibleWith(type)) {
+                        return format.getValue().getFactory();
+                    }
+                }
+            } catch (InvalidMediaTypeException ex) {
+                // Left for the message converters to reject
+            }
+        }
+        return mappers.get(MediaType.APPLICATION_JSON).getFactory();
+    }
+}
@@ -0,0 +1,117 @@
+package cl.smartjob.example.service.user.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free Bloom filter of email addresses. A negative answer is definite, a positive one means
+ * the address may be present. Safe for concurrent use without external synchronization.
+ */
+public class EmailBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * Create a filter sized for the expected number of insertions and false positive rate
+     * 
+     * @param expectedInsertions number of emails the filter is sized for
+     * @param falsePositiveRate target false positive rate at that size, between 0 and 1
+     */
+    public EmailBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+    }
+
+    /**
+     * Add an email to the filter
+     * 
+     * @param email the email to add
+     */
+    public void put(String email) {
+        long hash1 = hash(email);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * Check whether an email may have been added
+     * 
+     * @param email the email to check
+     * @return false if the email was definitely never added
+     */
+    public boolean mightContain(String email) {
+        long hash1 = hash(email);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of insertions, counting repeated emails each time
+     * 
+     * @return number of insertions
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    /**
+     * Get the memory used by the bit array
+     * 
+     * @return size in bytes
+     */
+    public long memoryBytes() {
+        return bitCount / 8;
+    }
+
+    /**
+     * Get the false positive rate expected for the current number of insertions
+     * 
+     * @return expected false positive rate
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions() / bitCount), hashFunctions);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer
+     */
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
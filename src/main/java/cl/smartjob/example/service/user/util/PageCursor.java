@@ -0,0 +1,50 @@
+package cl.smartjob.example.service.user.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the user listing: the (created, id) key of the last user of a page. Encoded as an
+ * opaque URL-safe token so clients do not depend on its contents.
+ * 
+ * @param created creation time of the last user returned
+ * @param id id of the last user returned
+ */
+public record PageCursor(LocalDateTime created, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encode the cursor as a token
+     * 
+     * @return URL-safe token
+     */
+    public String encode() {
+        String key = created.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by encode()
+     * 
+     * @param token the token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = key.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new PageCursor(LocalDateTime.parse(key.substring(0, separator)),
+                UUID.fromString(key.substring(separator + 1)));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package cl.smartjob.example.service.user.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records split in memory-mapped segment files. Each record gets the next
+ * offset of the log and is stored with a key and a timestamp; readers address records by offset
+ * and can wait for new ones to be appended. A segment file is preallocated to the segment size and
+ * named after the offset of its first record; when a record does not fit, a new segment is
+ * started. Appends are forced to disk before they become visible. Retention removes whole sealed
+ * segments, never the one being written.
+ * 
+ * Each record is laid out as its payload length, a CRC32C of the rest of the record, the key, the
+ * timestamp in epoch milliseconds and the payload. A zero length marks the end of a segment, so
+ * payloads may not be empty; a record with a bad checksum, as left by a crash in the middle of an
+ * append, ends it as well and is overwritten by the next append.
+ * 
+ * A single thread may append; any number of threads may read concurrently.
+ */
+public final class SegmentLog implements Closeable {
+
+    private static final int HEADER_SIZE = 4 + 4 + 16 + 8;
+    private static final String SUFFIX = ".log";
+    private static final int CLEAR_CHUNK_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private volatile Segment active;
+
+    /**
+     * A record to append
+     * 
+     * @param key identifies the record to its producer
+     * @param payload record content
+     */
+    public record Entry(UUID key, byte[] payload) {}
+
+    /**
+     * A record read from the log
+     * 
+     * @param offset position of the record in the log
+     * @param key identifies the record to its producer
+     * @param timestamp append time in epoch milliseconds
+     * @param payload record content
+     */
+    public record Record(long offset, UUID key, long timestamp, byte[] payload) {}
+
+    private SegmentLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Open the log in a directory, creating it if needed, and rebuild the index of every segment
+     * 
+     * @param directory directory of the segment files
+     * @param segmentSize size of each segment file in bytes
+     * @return the opened log
+     * @throws IOException if the segments cannot be read or created
+     */
+    public static SegmentLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("The segment size must exceed the record header");
+        }
+        Files.createDirectories(directory);
+        SegmentLog log = new SegmentLog(directory, segmentSize);
+        List<Long> baseOffsets;
+        try (Stream<Path> files = Files.list(directory)) {
+            baseOffsets = files.map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(SUFFIX))
+                .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                .sorted()
+                .toList();
+        }
+        for (int i = 0; i < baseOffsets.size(); i++) {
+            boolean last = i == baseOffsets.size() - 1;
+            Segment segment = Segment.open(log.file(baseOffsets.get(i)), baseOffsets.get(i), segmentSize, last);
+            log.segments.put(segment.baseOffset, segment);
+        }
+        log.active = log.segments.isEmpty() ? log.createSegment(0) : log.segments.lastEntry().getValue();
+        return log;
+    }
+
+    /**
+     * Append records, in order, and force them to disk
+     * 
+     * @param entries the records to append
+     * @return offset of the first appended record
+     * @throws IllegalArgumentException if a record is empty or larger than a segment; nothing is
+     *         appended then
+     * @throws IOException if a new segment cannot be created
+     */
+    public long append(List<Entry> entries) throws IOException {
+        for (Entry entry : entries) {
+            if (entry.payload().length == 0) {
+                throw new IllegalArgumentException("Record payload must not be empty");
+            }
+            if (HEADER_SIZE + entry.payload().length > segmentSize) {
+                throw new IllegalArgumentException(
+                    "Record of " + (HEADER_SIZE + entry.payload().length) + " bytes exceeds the segment size");
+            }
+        }
+        appendLock.lock();
+        try {
+            Segment segment = active;
+            long first = segment.nextOffset();
+            long timestamp = System.currentTimeMillis();
+            List<Segment> written = new ArrayList<>(2);
+            written.add(segment);
+            for (Entry entry : entries) {
+                int size = HEADER_SIZE + entry.payload().length;
+                if (!segment.fits(size)) {
+                    segment.force();
+                    segment = createSegment(segment.nextOffset());
+                    written.add(segment);
+                }
+                segment.write(entry, timestamp);
+            }
+            segment.force();
+            // Publish only what is on disk
+            written.forEach(Segment::publish);
+            active = segment;
+            appended.signalAll();
+            return first;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Read records starting at an offset. An offset before the start of the log reads from the
+     * start; one at or past the end returns no records.
+     * 
+     * @param offset offset of the first record to read
+     * @param maxRecords maximum number of records
+     * @return the records, in offset order
+     */
+    public List<Record> read(long offset, int maxRecords) {
+        List<Record> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        long next = Math.max(offset, startOffset());
+        while (records.size() < maxRecords) {
+            // Segments are contiguous, so the one at or before the offset holds it if anyone does
+            Segment segment = segmentOf(next);
+            if (segment == null || next >= segment.endOffset()) {
+                break;
+            }
+            records.add(segment.read(next));
+            next++;
+        }
+        return records;
+    }
+
+    /**
+     * Wait until the log holds a record at an offset
+     * 
+     * @param offset the offset to wait for
+     * @param timeout longest time to wait
+     * @return true if the record is available
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitOffset(long offset, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        appendLock.lock();
+        try {
+            while (endOffset() <= offset) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Read the last records of the log
+     * 
+     * @param count maximum number of records
+     * @return the records, in offset order
+     */
+    public List<Record> tail(int count) {
+        return read(Math.max(startOffset(), endOffset() - count), count);
+    }
+
+    /**
+     * Delete the oldest sealed segments whose last record is older than the retention time, and
+     * then as many as needed to bring the log within the size limit
+     * 
+     * @param retention maximum age of the records
+     * @param retentionBytes maximum size of the segment files
+     * @return number of segments deleted
+     * @throws IOException if a segment file cannot be deleted
+     */
+    public int applyRetention(Duration retention, long retentionBytes) throws IOException {
+        long expired = Instant.now().minus(retention).toEpochMilli();
+        int deleted = 0;
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            long bytes = (long) segments.size() * segmentSize;
+            if (oldest.lastTimestamp() >= expired && bytes <= retentionBytes) {
+                break;
+            }
+            segments.remove(oldest.baseOffset);
+            Files.deleteIfExists(file(oldest.baseOffset));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Get the offset of the first record still in the log
+     * 
+     * @return the start offset
+     */
+    public long startOffset() {
+        return segments.firstKey();
+    }
+
+    /**
+     * Get the offset the next appended record will get
+     * 
+     * @return the end offset
+     */
+    public long endOffset() {
+        return active.endOffset();
+    }
+
+    /**
+     * Get the number of segment files
+     * 
+     * @return the segment count
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            active.force();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment segmentOf(long offset) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+        return entry == null ? null : entry.getValue();
+    }
+
+    private Segment createSegment(long baseOffset) throws IOException {
+        Segment segment = Segment.open(file(baseOffset), baseOffset, segmentSize, true);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private Path file(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SUFFIX));
+    }
+
+    /**
+     * One segment file, mapped in full, with the position of each of its records
+     */
+    private static final class Segment {
+
+        private final long baseOffset;
+        private final MappedByteBuffer buffer;
+        private final CRC32C crc = new CRC32C();
+
+        // Written by the appending thread only; readers see up to the published count
+        private volatile int[] positions;
+        private volatile int published;
+        private int count;
+        private int writePosition;
+        private volatile long lastTimestamp;
+
+        private Segment(long baseOffset, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.buffer = buffer;
+            this.positions = new int[256];
+        }
+
+        static Segment open(Path file, long baseOffset, int segmentSize, boolean writable) throws IOException {
+            MappedByteBuffer buffer;
+            if (writable) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                }
+            } else {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            Segment segment = new Segment(baseOffset, buffer);
+            segment.recover(writable);
+            return segment;
+        }
+
+        /**
+         * Index the records of the file, stopping at the first empty or damaged one, which is
+         * cleared if the segment is to be written
+         */
+        private void recover(boolean writable) {
+            int position = 0;
+            while (position + HEADER_SIZE <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || position + HEADER_SIZE + length > buffer.limit()
+                    || buffer.getInt(position + 4) != checksum(position, length)) {
+                    if (writable) {
+                        clear(position);
+                    }
+                    break;
+                }
+                index(position, buffer.getLong(position + 24));
+                position += HEADER_SIZE + length;
+            }
+            writePosition = position;
+            published = count;
+        }
+
+        boolean fits(int size) {
+            return writePosition + size <= buffer.limit();
+        }
+
+        void write(Entry entry, long timestamp) {
+            int position = writePosition;
+            byte[] payload = entry.payload();
+            buffer.putLong(position + 8, entry.key().getMostSignificantBits());
+            buffer.putLong(position + 16, entry.key().getLeastSignificantBits());
+            buffer.putLong(position + 24, timestamp);
+            buffer.put(position + HEADER_SIZE, payload);
+            buffer.putInt(position + 4, checksum(position, payload.length));
+            // The length goes last, so a torn record is never taken for a whole one
+            buffer.putInt(position, payload.length);
+            index(position, timestamp);
+            writePosition = position + HEADER_SIZE + payload.length;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void publish() {
+            published = count;
+        }
+
+        Record read(long offset) {
+            int position = positions[(int) (offset - baseOffset)];
+            int length = buffer.getInt(position);
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            UUID key = new UUID(buffer.getLong(position + 8), buffer.getLong(position + 16));
+            return new Record(offset, key, buffer.getLong(position + 24), payload);
+        }
+
+        long endOffset() {
+            return baseOffset + published;
+        }
+
+        long nextOffset() {
+            return baseOffset + count;
+        }
+
+        long lastTimestamp() {
+            return lastTimestamp;
+        }
+
+        private void index(int position, long timestamp) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+            lastTimestamp = timestamp;
+        }
+
+        private int checksum(int position, int length) {
+            crc.reset();
+            crc.update(buffer.slice(position + 8, HEADER_SIZE - 8 + length));
+            return (int) crc.getValue();
+        }
+
+        private void clear(int position) {
+            byte[] zeros = new byte[CLEAR_CHUNK_SIZE];
+            for (int at = position; at < buffer.limit(); at += zeros.length) {
+                buffer.put(at, zeros, 0, Math.min(zeros.length, buffer.limit() - at));
+            }
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package cl.smartjob.example.service.user.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token bucket per key. Each bucket holds up to a capacity of tokens and earns them back at a fixed
+ * rate; a request takes one token or is rejected. A bucket is kept as a single theoretical arrival
+ * time (GCRA): the time at which it would be full again. Taking a token moves it forward by one
+ * token's worth of time with a compare-and-set, so buckets are updated without locks and a key
+ * that is never rejected costs one lookup and one CAS.
+ * 
+ * Buckets live in a bounded cache. Past the maximum, the least used keys are evicted; a key idle
+ * long enough for its bucket to refill is evicted as well, which loses nothing since a missing
+ * bucket starts full.
+ */
+public final class TokenBucketLimiter {
+
+    private final long emissionNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+    private final Function<String, AtomicLong> newBucket;
+
+    /**
+     * Create a limiter
+     * 
+     * @param capacity tokens a bucket holds, i.e. the largest burst
+     * @param refillPerSecond tokens earned per second
+     * @param maximumKeys buckets kept before the least used are evicted
+     * @param idleTimeout time after the last request before a bucket is evicted, at least the time
+     *        to refill it
+     */
+    public TokenBucketLimiter(int capacity, double refillPerSecond, long maximumKeys, Duration idleTimeout) {
+        this(capacity, refillPerSecond, maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, double refillPerSecond, long maximumKeys, Duration idleTimeout,
+        LongSupplier clock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.emissionNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = emissionNanos * capacity;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, idleTimeout.toNanos())))
+            .ticker(clock::getAsLong)
+            .build();
+        this.newBucket = key -> new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Take a token from the bucket of a key
+     * 
+     * @param key the client the request is counted against
+     * @return zero if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, newBucket);
+        long now = clock.getAsLong();
+        while (true) {
+            long full = bucket.get();
+            long next = (full - now > 0 ? full : now) + emissionNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Get the number of tracked keys
+     * 
+     * @return estimated number of buckets
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
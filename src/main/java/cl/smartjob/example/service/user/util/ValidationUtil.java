@@ -3,10 +3,12 @@ package cl.smartjob.example.service.user.util;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
- * Utility class for validation operations
+ * Utility class for validation operations. The configured regexes are compiled into a
+ * {@link CompiledValidator} when they fit its subset, and evaluated with java.util.regex otherwise.
  */
 @Component
 public class ValidationUtil {
@@ -26,18 +28,21 @@ public class ValidationUtil {
     @Value("${validation.user.message}")
     private String userMessage;
 
-    private Pattern emailPattern;
-    private Pattern passwordPattern;
+    @Value("${validation.fallback.max-length}")
+    private int fallbackMaxLength;
+
+    private Predicate<String> emailValidator;
+    private Predicate<String> passwordValidator;
 
     /**
      * Initialize patterns after properties are loaded
      */
     public void initializePatterns() {
-        if (emailPattern == null) {
-            emailPattern = Pattern.compile(emailRegex);
+        if (emailValidator == null) {
+            emailValidator = compile(emailRegex);
         }
-        if (passwordPattern == null) {
-            passwordPattern = Pattern.compile(passwordRegex);
+        if (passwordValidator == null) {
+            passwordValidator = compile(passwordRegex);
         }
     }
 
@@ -49,7 +54,7 @@ public class ValidationUtil {
      */
     public boolean isValidEmail(String email) {
         initializePatterns();
-        return emailPattern.matcher(email).matches();
+        return emailValidator.test(email);
     }
 
     /**
@@ -60,7 +65,7 @@ public class ValidationUtil {
      */
     public boolean isValidPassword(String password) {
         initializePatterns();
-        return passwordPattern.matcher(password).matches();
+        return passwordValidator.test(password);
     }
 
     /**
@@ -84,4 +89,17 @@ public class ValidationUtil {
     public String getUserMessage() {
         return userMessage;
     }
+
+    /**
+     * Compile a regex into a single-pass scanner, or into a Pattern when it uses constructs the
+     * scanner does not support. The Pattern may backtrack, so its input length is capped.
+     */
+    private Predicate<String> compile(String regex) {
+        CompiledValidator compiled = CompiledValidator.compile(regex);
+        if (compiled != null) {
+            return compiled::matches;
+        }
+        Pattern pattern = Pattern.compile(regex);
+        return input -> input != null && input.length() <= fallbackMaxLength && pattern.matcher(input).matches();
+    }
 }
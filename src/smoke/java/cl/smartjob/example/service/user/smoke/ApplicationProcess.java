@@ -0,0 +1,166 @@
+package cl.smartjob.example.service.user.smoke;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application under test, started as a separate process on a free port with the in-memory H2
+ * database: the boot jar on the JVM running the tests, or the native executable. Its event log
+ * goes to a temporary directory and its output to the report directory.
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+    /** Password the application is started with for its operator user */
+    static final String PASSWORD = "smoke";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final String mode;
+    private final Process process;
+    private final String baseUrl;
+    private final Duration startupTime;
+
+    private ApplicationProcess(String mode, Process process, String baseUrl, Duration startupTime) {
+        this.mode = mode;
+        this.process = process;
+        this.baseUrl = baseUrl;
+        this.startupTime = startupTime;
+    }
+
+    /**
+     * Start the application selected by the smoke.* system properties and wait until it is ready
+     * 
+     * @param client client used to poll the readiness probe
+     * @param reportDir directory of the application log
+     * @return the running application
+     * @throws IOException if the application cannot be started
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static ApplicationProcess start(HttpClient client, Path reportDir) throws IOException, InterruptedException {
+        String mode = System.getProperty("smoke.mode", "jvm");
+        List<String> command = new ArrayList<>();
+        if ("native".equals(mode)) {
+            command.add(existing(System.getProperty("smoke.executable")));
+        } else {
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-jar");
+            command.add(existing(System.getProperty("smoke.jar")));
+        }
+        int port = freePort();
+        Path events = Files.createTempDirectory("smoke-events");
+        // Every request comes from one address, which the rate limiter would otherwise throttle
+        command.addAll(List.of("--server.port=" + port, "--spring.jpa.show-sql=false", "--rate-limit.enabled=false",
+            "--outbox.log.directory=" + events, "--spring.security.user.password=" + PASSWORD));
+
+        Files.createDirectories(reportDir);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(reportDir.resolve(mode + "-application.log").toFile())
+            .start();
+        String baseUrl = "http://localhost:" + port;
+        awaitReady(client, baseUrl, process);
+        return new ApplicationProcess(mode, process, baseUrl, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Get the build under test
+     * 
+     * @return jvm or native
+     */
+    String mode() {
+        return mode;
+    }
+
+    /**
+     * Get the time from the start of the process until it reported ready
+     * 
+     * @return the startup time
+     */
+    Duration startupTime() {
+        return startupTime;
+    }
+
+    /**
+     * Get the URI of a path of the application
+     * 
+     * @param path the path, starting with a slash
+     * @return the URI
+     */
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    /**
+     * Get the resident set size of the process, as reported by /proc
+     * 
+     * @return the resident memory in bytes, or -1 where /proc is not available
+     * @throws IOException if the process status cannot be read
+     */
+    long residentBytes() throws IOException {
+        Path status = Paths.get("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static String existing(String file) {
+        if (file == null || !Files.isRegularFile(Paths.get(file))) {
+            throw new IllegalStateException("Application not found: " + file);
+        }
+        return file;
+    }
+
+    private static void awaitReady(HttpClient client, String baseUrl, Process process) throws InterruptedException {
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(20);
+        }
+        process.destroyForcibly();
+        throw new IllegalStateException("The application did not become ready within " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package cl.smartjob.example.service.user.smoke;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Smoke tests of the user API against a running application, the same for the JVM and the native
+ * build. They go through the paths a native image needs reachability metadata for: the JSON,
+ * Smile and CBOR binding of each endpoint and of the error bodies, the Hibernate entities, BCrypt,
+ * the event log and the actuator. The last test measures registration throughput and writes the
+ * startup time and resident memory of the run to the report directory.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class UserApiSmokeTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration THROUGHPUT_DURATION = Duration.ofSeconds(10);
+    private static final int THROUGHPUT_CLIENTS = 8;
+
+    private static HttpClient client;
+    private static ApplicationProcess application;
+    private static Path reportDir;
+    private static long startupResidentBytes;
+
+    @BeforeAll
+    static void start() throws Exception {
+        client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        reportDir = Paths.get(System.getProperty("smoke.reportDir", "build/reports/smoke"));
+        application = ApplicationProcess.start(client, reportDir);
+        startupResidentBytes = application.residentBytes();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (application != null) {
+            application.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void testRegisterAndFindUser() throws Exception {
+        String email = uniqueEmail();
+        HttpResponse<String> created = post("/api/users/create", registration(email, "Password123!"));
+        assertEquals(201, created.statusCode(), created.body());
+        JsonNode user = MAPPER.readTree(created.body());
+        assertEquals(email, user.get("email").asText());
+        assertEquals("57", user.get("phones").get(0).get("contrycode").asText());
+
+        HttpResponse<String> byId = get("/api/users/" + user.get("id").asText());
+        assertEquals(200, byId.statusCode());
+        assertEquals(email, MAPPER.readTree(byId.body()).get("email").asText());
+
+        HttpResponse<String> byEmail = get("/api/users/by-email?email=" + email);
+        assertEquals(200, byEmail.statusCode());
+        assertEquals(user.get("id"), MAPPER.readTree(byEmail.body()).get("id"));
+    }
+
+    @Test
+    @Order(2)
+    void testRejectDuplicateEmail() throws Exception {
+        String email = uniqueEmail();
+        assertEquals(201, post("/api/users/create", registration(email, "Password123!")).statusCode());
+
+        HttpResponse<String> duplicate = post("/api/users/create", registration(email, "Password123!"));
+        assertEquals(409, duplicate.statusCode());
+        assertEquals("El usuario se encuentra registrado", MAPPER.readTree(duplicate.body()).get("mensaje").asText());
+    }
+
+    @Test
+    @Order(3)
+    void testRejectInvalidPassword() throws Exception {
+        HttpResponse<String> invalid = post("/api/users/create", registration(uniqueEmail(), "weak"));
+        assertEquals(400, invalid.statusCode());
+        assertTrue(MAPPER.readTree(invalid.body()).get("mensaje").asText().startsWith("La contraseña"));
+    }
+
+    @Test
+    @Order(4)
+    void testRegisterAsynchronously() throws Exception {
+        HttpResponse<String> accepted = post("/api/users/async", registration(uniqueEmail(), "Password123!"));
+        assertEquals(202, accepted.statusCode(), accepted.body());
+        String id = MAPPER.readTree(accepted.body()).get("id").asText();
+
+        String status = "PENDING";
+        for (int attempt = 0; attempt < 100 && "PENDING".equals(status); attempt++) {
+            Thread.sleep(50);
+            status = MAPPER.readTree(get("/api/users/async/" + id).body()).get("status").asText();
+        }
+        assertEquals("CREATED", status);
+        assertEquals(200, get("/api/users/" + id).statusCode());
+    }
+
+    @Test
+    @Order(5)
+    void testListUsers() throws Exception {
+        assertEquals(401, get("/api/users?size=2").statusCode());
+        HttpResponse<String> page = authenticatedGet("/api/users?size=2");
+        assertEquals(200, page.statusCode());
+        JsonNode listing = MAPPER.readTree(page.body());
+        assertEquals(2, listing.get("users").size());
+        assertTrue(listing.get("next").isTextual());
+    }
+
+    @Test
+    @Order(6)
+    void testPublishRegistrationEvents() throws Exception {
+        assertEquals(401, get("/api/events?offset=0").statusCode());
+        HttpResponse<String> read = authenticatedGet("/api/events?offset=0&limit=100&wait=5");
+        assertEquals(200, read.statusCode());
+        JsonNode events = MAPPER.readTree(read.body()).get("events");
+        assertTrue(events.size() > 0);
+        assertEquals("UserRegistered", events.get(0).get("payload").get("type").asText());
+    }
+
+    @Test
+    @Order(7)
+    void testExposeHealthAndMetrics() throws Exception {
+        assertEquals("UP", MAPPER.readTree(get("/actuator/health").body()).get("status").asText());
+        HttpResponse<String> prometheus = get("/actuator/prometheus");
+        assertEquals(200, prometheus.statusCode());
+        assertTrue(prometheus.body().contains("registration_outcome_total"), "registration metrics missing");
+    }
+
+    @Test
+    @Order(8)
+    void testNegotiateBinaryFormats() throws Exception {
+        for (String[] format : new String[][] { { "application/x-jackson-smile", "smile" }, { "application/cbor", "cbor" } }) {
+            ObjectMapper mapper = new ObjectMapper("smile".equals(format[1]) ? new SmileFactory() : new CBORFactory());
+            String email = uniqueEmail();
+            byte[] body = mapper.writeValueAsBytes(MAPPER.readTree(registration(email, "Password123!")));
+
+            HttpResponse<byte[]> created = post("/api/users/create", format[0], body);
+            assertEquals(201, created.statusCode(), format[1]);
+            assertEquals(format[0], created.headers().firstValue("Content-Type").orElse(null));
+            assertEquals(email, mapper.readTree(created.body()).get("email").asText());
+
+            HttpResponse<byte[]> duplicate = post("/api/users/create", format[0], body);
+            assertEquals(409, duplicate.statusCode(), format[1]);
+            assertEquals(format[0], duplicate.headers().firstValue("Content-Type").orElse(null));
+            assertEquals("El usuario se encuentra registrado", mapper.readTree(duplicate.body()).get("mensaje").asText());
+        }
+    }
+
+    @Test
+    @Order(Integer.MAX_VALUE)
+    void testReportFootprint() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        long deadline = System.nanoTime() + THROUGHPUT_DURATION.toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THROUGHPUT_CLIENTS)) {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < THROUGHPUT_CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        if (post("/api/users/create", registration(uniqueEmail(), "Password123!")).statusCode() == 201) {
+                            created.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertTrue(created.get() > 0, "no registration succeeded");
+
+        Properties report = new Properties();
+        report.setProperty("mode", application.mode());
+        report.setProperty("startup.ms", String.valueOf(application.startupTime().toMillis()));
+        report.setProperty("rss.startup.mb", megabytes(startupResidentBytes));
+        report.setProperty("rss.loaded.mb", megabytes(application.residentBytes()));
+        report.setProperty("registrations.per.second", String.format("%.1f", created.get() / seconds));
+        report.setProperty("clients", String.valueOf(THROUGHPUT_CLIENTS));
+        try (Writer writer = Files.newBufferedWriter(reportDir.resolve(application.mode() + ".properties"))) {
+            report.store(writer, "Smoke test footprint");
+        }
+        System.out.println(report);
+    }
+
+    private static HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(application.uri(path))
+            .timeout(Duration.ofSeconds(30))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> authenticatedGet(String path) throws IOException, InterruptedException {
+        String credentials = Base64.getEncoder()
+            .encodeToString(("actuator:" + ApplicationProcess.PASSWORD).getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(application.uri(path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Authorization", "Basic " + credentials)
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(application.uri(path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<byte[]> post(String path, String format, byte[] body)
+        throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(application.uri(path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", format)
+            .header("Accept", format)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String registration(String email, String password) {
+        return """
+            {"name":"Juan Rodriguez","email":"%s","password":"%s",\
+            "phones":[{"number":"1234567","citycode":"1","contrycode":"57"}]}"""
+            .formatted(email, password);
+    }
+
+    private static String uniqueEmail() {
+        return "smoke-" + UUID.randomUUID() + "@rodriguez.org";
+    }
+
+    private static String megabytes(long bytes) {
+        return bytes < 0 ? "n/a" : String.valueOf(bytes / (1024 * 1024));
+    }
+}
@@ -0,0 +1,195 @@
+package cl.smartjob.example.service.user.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import cl.smartjob.example.service.user.config.RateLimitProperties.Limit;
+import cl.smartjob.example.service.user.config.RateLimitProperties.Route;
+import cl.smartjob.example.service.user.util.ContentFormats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for RateLimitFilter, in front of a controller that echoes the body it receives.
+ * Covers the 429 and its Retry-After for each limit, the body replayed to the controller, the
+ * routes and methods the limits apply to, and the bodies rejected before the email is read.
+ */
+class RateLimitFilterTest {
+
+    private static final String MESSAGE = "Demasiadas solicitudes, intente nuevamente más tarde";
+    private static final String BODY = "{\"name\":\"Juan\",\"email\":\"%s\",\"password\":\"Password123!\",\"phones\":[]}";
+
+    // Buckets that do not refill within a test, one token every 100 seconds
+    private static final double REFILL_PER_SECOND = 0.01;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<Route> routes = List.of(
+            new Route("POST", "/api/users/create", new Limit(2, REFILL_PER_SECOND), new Limit(3, REFILL_PER_SECOND)),
+            new Route("POST", "/api/users/batch", new Limit(1, REFILL_PER_SECOND), null));
+        RateLimitProperties properties = new RateLimitProperties(true, 100, Duration.ofMinutes(1),
+            DataSize.ofKilobytes(1), MESSAGE, routes);
+        ContentFormats contentFormats = new ContentFormats(Jackson2ObjectMapperBuilder.json().build(),
+            Jackson2ObjectMapperBuilder.smile().build(), Jackson2ObjectMapperBuilder.cbor().build());
+        mockMvc = MockMvcBuilders.standaloneSetup(new EchoController())
+            .addFilters(new RateLimitFilter(properties, contentFormats, new SimpleMeterRegistry()))
+            .build();
+    }
+
+    @Test
+    void createUser_OverIpLimit_Returns429WithRetryAfter() throws Exception {
+        create("10.0.0.1", "a@rodriguez.org").andExpect(status().isOk());
+        create("10.0.0.1", "b@smartjob.cl").andExpect(status().isOk());
+
+        create("10.0.0.1", "c@example.org")
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.mensaje").value(MESSAGE));
+        create("10.0.0.2", "c@example.org").andExpect(status().isOk());
+    }
+
+    @Test
+    void createUser_OverEmailDomainLimit_Returns429ForThatDomainOnly() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            create("10.0.1." + i, "user" + i + "@rodriguez.org").andExpect(status().isOk());
+        }
+
+        // The domain is compared without case
+        create("10.0.1.3", "user3@Rodriguez.ORG")
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        create("10.0.1.4", "user4@smartjob.cl").andExpect(status().isOk());
+    }
+
+    @Test
+    void createUser_PercentEncodedPath_CountsAgainstSameLimit() throws Exception {
+        create("10.0.3.1", "a@rodriguez.org").andExpect(status().isOk());
+        create("10.0.3.1", "b@smartjob.cl").andExpect(status().isOk());
+
+        // Reaches the same handler, decoded, and so the same bucket
+        mockMvc.perform(post(URI.create("/api/users/%63reate")).contentType(MediaType.APPLICATION_JSON)
+            .content(BODY.formatted("c@example.org")).with(remoteAddr("10.0.3.1")))
+            .andExpect(status().isTooManyRequests());
+        mockMvc.perform(post(URI.create("/api/users/%63reate")).contentType(MediaType.APPLICATION_JSON)
+            .content(BODY.formatted("c@example.org")).with(remoteAddr("10.0.3.2")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void createUser_UnderLimits_ReplaysBodyToController() throws Exception {
+        String body = BODY.formatted("juan@rodriguez.org");
+
+        mockMvc.perform(post("/api/users/create").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(content().string(body));
+    }
+
+    @Test
+    void createUser_BodyOverMaxSize_Returns413() throws Exception {
+        String padded = BODY.formatted("juan@rodriguez.org").replace("\"phones\"",
+            "\"padding\":\"" + "x".repeat(2048) + "\",\"phones\"");
+
+        mockMvc.perform(post("/api/users/create").contentType(MediaType.APPLICATION_JSON).content(padded))
+            .andExpect(status().isPayloadTooLarge())
+            .andExpect(jsonPath("$.mensaje").value("El cuerpo de la solicitud excede el tamaño máximo"));
+    }
+
+    @Test
+    void createUser_RepeatedEmailField_Returns400() throws Exception {
+        String repeated = "{\"email\":\"a@rodriguez.org\",\"email\":\"b@smartjob.cl\"}";
+
+        mockMvc.perform(post("/api/users/create").contentType(MediaType.APPLICATION_JSON).content(repeated))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.mensaje").value("El campo email no puede repetirse"));
+    }
+
+    @Test
+    void createUser_SmileBody_CountsAgainstEmailDomain() throws Exception {
+        byte[] smile = Jackson2ObjectMapperBuilder.smile().build()
+            .writeValueAsBytes(Map.of("email", "user@rodriguez.org"));
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/users/create").contentType(ContentFormats.SMILE).content(smile)
+                .with(remoteAddr("10.0.2." + i)));
+        }
+
+        mockMvc.perform(post("/api/users/create").contentType(ContentFormats.SMILE).content(smile)
+            .with(remoteAddr("10.0.2.3")))
+            .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void batch_IpLimitOnly_LimitsByIpAndAcceptsLargeBodies() throws Exception {
+        String large = "[" + BODY.formatted("a@rodriguez.org") + "," + "x".repeat(2048) + "]";
+
+        mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON).content(large))
+            .andExpect(status().isOk())
+            .andExpect(content().string(large));
+        mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON).content(large))
+            .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void unlimitedRouteOrMethod_AnyNumberOfRequests_IsNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/users/create")).andExpect(status().isOk());
+            mockMvc.perform(post("/api/users/other").contentType(MediaType.APPLICATION_JSON)
+                .content(BODY.formatted("a@rodriguez.org"))).andExpect(status().isOk());
+        }
+    }
+
+    private ResultActions create(String ip, String email) throws Exception {
+        return mockMvc.perform(post("/api/users/create").contentType(MediaType.APPLICATION_JSON)
+            .content(BODY.formatted(email)).with(remoteAddr(ip)));
+    }
+
+    private static RequestPostProcessor remoteAddr(String ip) {
+        return request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        };
+    }
+
+    /**
+     * Stands in for the limited endpoints, echoing the body that got past the filter
+     */
+    @RestController
+    static class EchoController {
+
+        @PostMapping({ "/api/users/create", "/api/users/batch", "/api/users/other" })
+        public String echo(@RequestBody String body) {
+            return body;
+        }
+
+        @GetMapping("/api/users/create")
+        public String get() {
+            return "";
+        }
+    }
+}
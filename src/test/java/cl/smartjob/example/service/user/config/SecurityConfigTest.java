@@ -0,0 +1,148 @@
+package cl.smartjob.example.service.user.config;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Integration test for the access rules of SecurityConfig. The API and the actuator read
+ * operations are open, the actuator write operations, the event log and the user listing need the
+ * credentials of the actuator user.
+ */
+@SpringBootTest(properties = { "outbox.relay.interval=1h", "spring.security.user.password=secret" })
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    // Keep the event log out of the working directory
+    @TempDir
+    static Path eventLogDirectory;
+
+    @DynamicPropertySource
+    static void eventLogProperties(DynamicPropertyRegistry registry) {
+        registry.add("outbox.log.directory", eventLogDirectory::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void actuatorRead_Anonymous_IsAllowed() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/emailindex"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void emailIndexRebuild_Anonymous_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/actuator/emailindex"))
+            .andExpect(status().isUnauthorized())
+            .andExpect(header().exists(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    void emailIndexRebuild_WrongPassword_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/actuator/emailindex").with(httpBasic("actuator", "guess")))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void emailIndexRebuild_ActuatorUser_RebuildsIndex() throws Exception {
+        mockMvc.perform(post("/actuator/emailindex").with(httpBasic("actuator", "secret")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void flightRecorderDump_Anonymous_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/actuator/jfr"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void flightRecorderDump_ActuatorUser_ReportsDump() throws Exception {
+        // No recording runs in the tests, so nothing is written, but the operation is reached
+        mockMvc.perform(post("/actuator/jfr").with(httpBasic("actuator", "secret")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.dumped").value(false));
+    }
+
+    @Test
+    void loggerLevel_Anonymous_ReturnsUnauthorizedAndKeepsLevel() throws Exception {
+        mockMvc.perform(post("/actuator/loggers/cl.smartjob.sql").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"configuredLevel\":\"TRACE\"}"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/loggers/cl.smartjob.sql"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.effectiveLevel").value(not("TRACE")));
+    }
+
+    @Test
+    void loggerLevel_ActuatorUser_ChangesLevel() throws Exception {
+        mockMvc.perform(post("/actuator/loggers/cl.smartjob.sql").with(httpBasic("actuator", "secret"))
+            .contentType(MediaType.APPLICATION_JSON).content("{\"configuredLevel\":\"DEBUG\"}"))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/actuator/loggers/cl.smartjob.sql"))
+            .andExpect(jsonPath("$.configuredLevel").value("DEBUG"));
+        mockMvc.perform(post("/actuator/loggers/cl.smartjob.sql").with(httpBasic("actuator", "secret"))
+            .contentType(MediaType.APPLICATION_JSON).content("{\"configuredLevel\":null}"))
+            .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void readEvents_Anonymous_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/events").param("wait", "30"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void readEvents_ActuatorUser_ReturnsEvents() throws Exception {
+        mockMvc.perform(get("/api/events").with(httpBasic("actuator", "secret")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.events").isArray());
+    }
+
+    @Test
+    void listUsers_Anonymous_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/users"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void listUsers_ActuatorUser_ReturnsPage() throws Exception {
+        mockMvc.perform(get("/api/users").param("size", "1").with(httpBasic("actuator", "secret")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users").isArray());
+    }
+
+    @Test
+    void findUser_Anonymous_IsAllowed() throws Exception {
+        // Only the listing is restricted, lookups of a single user stay open
+        mockMvc.perform(get("/api/users/" + UUID.randomUUID()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createUser_Anonymous_IsNotAuthenticated() throws Exception {
+        // An invalid body is enough to reach validation past the security filters
+        mockMvc.perform(post("/api/users/create").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,80 @@
+package cl.smartjob.example.service.user.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import cl.smartjob.example.service.user.util.LogCapture;
+
+/**
+ * Unit tests for SqlStatementLog, capturing what it writes to the cl.smartjob.sql logger. Covers
+ * the sampling decision at each rate and logger level, and that statements are logged as prepared,
+ * with placeholders in place of the bound values.
+ */
+class SqlStatementLogTest {
+
+    private static final String LOGGER = "cl.smartjob.sql";
+    private static final String INSERT = "insert into users (created,email,is_active,last_login,modified,name,password,token,id) "
+        + "values (?,?,?,?,?,?,?,?,?)";
+
+    private LogCapture capture;
+
+    @BeforeEach
+    void setUp() {
+        capture = LogCapture.of(LOGGER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        capture.close();
+        Configurator.setLevel(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void inspect_LoggerAtInfo_LogsNothingAndReturnsStatement() {
+        SqlStatementLog sqlStatementLog = new SqlStatementLog(1.0);
+
+        assertEquals(INSERT, sqlStatementLog.inspect(INSERT));
+        assertTrue(capture.messages().isEmpty());
+    }
+
+    @Test
+    void inspect_DebugAndRateOne_LogsStatementWithPlaceholders() {
+        SqlStatementLog sqlStatementLog = new SqlStatementLog(1.0);
+        Configurator.setLevel(LOGGER, Level.DEBUG);
+
+        assertEquals(INSERT, sqlStatementLog.inspect(INSERT));
+        assertEquals(List.of(INSERT), capture.messages());
+    }
+
+    @Test
+    void inspect_DebugAndRateZero_LogsNothing() {
+        SqlStatementLog sqlStatementLog = new SqlStatementLog(0.0);
+        Configurator.setLevel(LOGGER, Level.DEBUG);
+
+        for (int i = 0; i < 1000; i++) {
+            sqlStatementLog.inspect(INSERT);
+        }
+        assertTrue(capture.messages().isEmpty());
+    }
+
+    @Test
+    void inspect_DebugAndFractionalRate_LogsAboutThatShare() {
+        SqlStatementLog sqlStatementLog = new SqlStatementLog(0.25);
+        Configurator.setLevel(LOGGER, Level.DEBUG);
+
+        for (int i = 0; i < 4000; i++) {
+            sqlStatementLog.inspect(INSERT);
+        }
+        // 1000 expected, with a standard deviation of about 27
+        int logged = capture.messages().size();
+        assertTrue(logged > 800 && logged < 1200, "logged " + logged);
+    }
+}
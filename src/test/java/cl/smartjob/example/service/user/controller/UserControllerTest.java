@@ -0,0 +1,155 @@
+package cl.smartjob.example.service.user.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.exception.GlobalExceptionHandler;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import cl.smartjob.example.service.user.service.IdempotencyService;
+import cl.smartjob.example.service.user.service.UserQueryService;
+import cl.smartjob.example.service.user.service.UserQueryService.CachedUser;
+import cl.smartjob.example.service.user.service.UserService;
+import cl.smartjob.example.service.user.util.ContentFormats;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+
+/**
+ * Unit tests for UserController. Covers the ETag and Cache-Control of a lookup, the 304 returned
+ * when If-None-Match matches, the 503 with Retry-After of a registration the hashing pool has no
+ * room for, and the cap on the items of a bulk registration.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+
+    private static final String USER = "{\"name\":\"Juan Rodriguez\",\"email\":\"juan@rodriguez.org\","
+        + "\"password\":\"Password123!\",\"phones\":[]}";
+    private static final String OVERLOADED_MESSAGE = "El servicio se encuentra saturado, intente nuevamente más tarde";
+
+    @Mock
+    private UserQueryService userQueryService;
+
+    @InjectMocks
+    private UserController userController;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private ValidationUtil validationUtil;
+
+    private MockMvc mockMvc;
+    private UUID id;
+    private String etag;
+
+    @BeforeEach
+    void setUp() {
+        GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(exceptionHandler, "contentFormats", new ContentFormats(
+            Jackson2ObjectMapperBuilder.json().build(), Jackson2ObjectMapperBuilder.smile().build(),
+            Jackson2ObjectMapperBuilder.cbor().build()));
+        ReflectionTestUtils.setField(exceptionHandler, "validationUtil", validationUtil);
+        exceptionHandler.initializeBodies();
+        ReflectionTestUtils.setField(userController, "batchMaxItems", 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController).setControllerAdvice(exceptionHandler).build();
+
+        id = UUID.randomUUID();
+        etag = UserQueryService.etag(LocalDateTime.of(2026, 10, 18, 9, 30));
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(id);
+        user.setEmail("juan@rodriguez.org");
+        lenient().when(userQueryService.findById(id)).thenReturn(new CachedUser(user, etag));
+    }
+
+    @Test
+    void getUser_NoIfNoneMatch_ReturnsUserWithETag() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+            .andExpect(jsonPath("$.email").value("juan@rodriguez.org"));
+    }
+
+    @Test
+    void getUser_MatchingIfNoneMatch_Returns304WithoutBody() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void getUser_StaleIfNoneMatch_ReturnsUser() throws Exception {
+        String stale = UserQueryService.etag(LocalDateTime.of(2026, 10, 17, 9, 30));
+
+        mockMvc.perform(get("/api/users/{id}", id).header(HttpHeaders.IF_NONE_MATCH, stale))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void createUser_HashingPoolFull_Returns503WithRetryAfter() throws Exception {
+        when(idempotencyService.execute(any(), any(), any(), any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+        when(userService.registerUser(any()))
+            .thenThrow(new ServiceOverloadedException(OVERLOADED_MESSAGE, 2));
+
+        mockMvc.perform(post("/api/users/create").contentType(MediaType.APPLICATION_JSON)
+            .content(USER))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+            .andExpect(jsonPath("$.mensaje").value(OVERLOADED_MESSAGE));
+    }
+
+    @Test
+    void registerUsers_AtMaxItems_RegistersAll() throws Exception {
+        when(userService.registerUsers(anyList())).thenReturn(List.of(BatchItemResultDTO.builder().status(201).build(),
+            BatchItemResultDTO.builder().status(201).build()));
+
+        mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON)
+            .content("[" + USER + "," + USER + "]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void registerUsers_OverMaxItems_Returns400WithoutRegistering() throws Exception {
+        mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON)
+            .content("[" + USER + "," + USER + "," + USER + "]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.mensaje").value("La solicitud excede el máximo de 2 usuarios"));
+        verify(userService, never()).registerUsers(anyList());
+    }
+}
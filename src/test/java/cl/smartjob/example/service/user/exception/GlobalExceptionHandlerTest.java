@@ -0,0 +1,127 @@
+package cl.smartjob.example.service.user.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.util.ContentFormats;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+
+/**
+ * Unit tests for GlobalExceptionHandler, in front of a controller that throws. Covers the error
+ * body in each negotiated format, the Retry-After of a 503, and the JSON fallback of an Accept
+ * header that cannot be negotiated.
+ */
+@ExtendWith(MockitoExtension.class)
+class GlobalExceptionHandlerTest {
+
+    private static final String USER_MESSAGE = "El usuario se encuentra registrado";
+    private static final String OVERLOADED_MESSAGE = "El servicio se encuentra saturado, intente nuevamente más tarde";
+
+    @Mock
+    private ValidationUtil validationUtil;
+
+    @InjectMocks
+    private GlobalExceptionHandler exceptionHandler;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exceptionHandler, "contentFormats", new ContentFormats(
+            Jackson2ObjectMapperBuilder.json().build(), Jackson2ObjectMapperBuilder.smile().build(),
+            Jackson2ObjectMapperBuilder.cbor().build()));
+        when(validationUtil.getUserMessage()).thenReturn(USER_MESSAGE);
+        exceptionHandler.initializeBodies();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ThrowingController())
+            .setControllerAdvice(exceptionHandler)
+            .build();
+    }
+
+    @Test
+    void handleEmailAlreadyExists_NoAccept_ReturnsJsonBody() throws Exception {
+        mockMvc.perform(get("/duplicate"))
+            .andExpect(status().isConflict())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.mensaje").value(USER_MESSAGE));
+    }
+
+    @Test
+    void handleEmailAlreadyExists_AcceptCbor_ReturnsCborBody() throws Exception {
+        MvcResult result = mockMvc.perform(get("/duplicate").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isConflict())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn();
+
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        assertEquals(USER_MESSAGE,
+            cbor.readTree(result.getResponse().getContentAsByteArray()).get("mensaje").asText());
+    }
+
+    @Test
+    void handleServiceOverloaded_AcceptSmile_ReturnsSmileBodyWithRetryAfter() throws Exception {
+        MvcResult result = mockMvc.perform(get("/overloaded").accept(ContentFormats.SMILE))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+            .andExpect(content().contentType(ContentFormats.SMILE))
+            .andReturn();
+
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+        assertEquals(OVERLOADED_MESSAGE,
+            smile.readTree(result.getResponse().getContentAsByteArray()).get("mensaje").asText());
+    }
+
+    @Test
+    void handleEmailAlreadyExists_TooManyAcceptedTypes_ReturnsJsonBody() throws Exception {
+        String accept = IntStream.range(0, 60)
+            .mapToObj(i -> "application/x-type-" + i)
+            .collect(Collectors.joining(", ")) + ", application/cbor";
+
+        mockMvc.perform(get("/duplicate").header(HttpHeaders.ACCEPT, accept))
+            .andExpect(status().isConflict())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.mensaje").value(USER_MESSAGE));
+    }
+
+    /**
+     * Stands in for the endpoints, throwing the exceptions the handler maps
+     */
+    @RestController
+    static class ThrowingController {
+
+        @GetMapping("/duplicate")
+        public String duplicate() {
+            throw new EmailAlreadyExistsException(USER_MESSAGE);
+        }
+
+        @GetMapping("/overloaded")
+        public String overloaded() {
+            throw new ServiceOverloadedException(OVERLOADED_MESSAGE, 2);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.exception.IdempotencyKeyMismatchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for IdempotencyService. Covers replays, concurrent requests sharing a key, failures,
+ * keys reused with a different request, and the scoping of keys by route and client.
+ */
+class IdempotencyServiceTest {
+
+    private IdempotencyService idempotencyService;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(idempotencyService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(idempotencyService, "expireAfterWrite", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(idempotencyService, "retryAfterSeconds", 1L);
+        ReflectionTestUtils.setField(idempotencyService, "mismatchMessage", "mismatch");
+        ReflectionTestUtils.setField(idempotencyService, "inFlightMessage", "in flight");
+        idempotencyService.initializeCache();
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    void execute_RetryWithSameKey_ReplaysStoredResponse() {
+        ResponseEntity<String> first = execute("key", "request");
+        ResponseEntity<String> retry = execute("key", "request");
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertSame(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_RetryWhileInFlight_WaitsForFirstResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("create", null, "key", "request", () -> {
+                started.countDown();
+                await(release);
+                return created();
+            }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<String>> retry = CompletableFuture.supplyAsync(() ->
+            execute("key", "request"));
+        Thread.sleep(100);
+        assertFalse(retry.isDone());
+        release.countDown();
+
+        assertEquals(HttpStatus.CREATED, retry.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertSame(first.get().getBody(), retry.get().getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void execute_FirstRequestFails_RetryRunsAgain() {
+        assertThrows(EmailAlreadyExistsException.class,
+            () -> idempotencyService.execute("create", null, "key", "request", () -> {
+                throw new EmailAlreadyExistsException("duplicate");
+            }));
+
+        ResponseEntity<String> retry = execute("key", "request");
+
+        assertEquals(1, runs.get());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_KeyReusedWithDifferentRequest_ThrowsMismatch() {
+        execute("key", "request");
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> execute("key", "other request"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void execute_DifferentRequestsWithEqualHashCode_ThrowsMismatch() {
+        // String hash codes collide for these two
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        execute("key", "Aa");
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> execute("key", "BB"));
+    }
+
+    @Test
+    void execute_SameContentInOtherOrder_ReplaysStoredResponse() {
+        Map<String, String> request = new LinkedHashMap<>();
+        request.put("name", "Juan");
+        request.put("email", "juan@rodriguez.org");
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("email", "juan@rodriguez.org");
+        reordered.put("name", "Juan");
+        idempotencyService.execute("create", null, "key", request, this::created);
+
+        ResponseEntity<String> retry = idempotencyService.execute("create", null, "key", reordered, this::created);
+
+        assertEquals(1, runs.get());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_SameKeyOnOtherRoute_RunsAgain() {
+        idempotencyService.execute("create", null, "key", "request", this::created);
+
+        ResponseEntity<String> other = idempotencyService.execute("async", null, "key", "request", this::created);
+
+        assertEquals(2, runs.get());
+        assertNull(other.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_SameKeyFromOtherClient_RunsAgain() {
+        idempotencyService.execute("create", "client-a", "key", "request", this::created);
+        idempotencyService.execute("create", "client-b", "key", "other request", this::created);
+        idempotencyService.execute("create", null, "key", "request", this::created);
+
+        assertEquals(3, runs.get());
+    }
+
+    private ResponseEntity<String> execute(String key, String request) {
+        return idempotencyService.execute("create", null, key, request, this::created);
+    }
+
+    private ResponseEntity<String> created() {
+        return new ResponseEntity<>("user " + runs.incrementAndGet(), HttpStatus.CREATED);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for PasswordHashingService, on a pool of one thread with room for one waiting
+ * password. Covers the fail-fast admission control of single registrations, the bulk callers
+ * waiting for room instead, and the submissions after shutdown.
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+    private static final long RETRY_AFTER_SECONDS = 3;
+    private static final String MESSAGE = "El servicio se encuentra saturado, intente nuevamente más tarde";
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private PasswordHashingService passwordHashingService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(passwordHashingService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(passwordHashingService, "parallelism", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "retryAfterSeconds", RETRY_AFTER_SECONDS);
+        ReflectionTestUtils.setField(passwordHashingService, "overloadedMessage", MESSAGE);
+        passwordHashingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHashingService.stop();
+    }
+
+    @Test
+    void encode_FreeSlot_ReturnsEncodedPassword() {
+        when(passwordEncoder.encode("Password123!")).thenReturn("encoded");
+
+        assertEquals("encoded", passwordHashingService.encode("Password123!"));
+    }
+
+    @Test
+    void encode_PoolFull_ThrowsOverloadedWithRetryAfter() throws Exception {
+        List<CompletableFuture<String>> inFlight = fillPool();
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+            () -> passwordHashingService.encode("Password123!"));
+        assertEquals(MESSAGE, ex.getMessage());
+        assertEquals(RETRY_AFTER_SECONDS, ex.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("registration.hashing.rejected").counter().count());
+
+        // The rejection does not take a slot, once the pool drains it admits again
+        release.countDown();
+        for (CompletableFuture<String> future : inFlight) {
+            assertEquals("encoded", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals("encoded", passwordHashingService.encode("Password123!"));
+    }
+
+    @Test
+    void encodeAll_PoolFull_WaitsForRoomAndEncodesAll() throws Exception {
+        fillPool();
+
+        CompletableFuture<List<String>> bulk = CompletableFuture
+            .supplyAsync(() -> passwordHashingService.encodeAll(List.of("a", "b", "c")));
+        assertThrows(TimeoutException.class, () -> bulk.get(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertEquals(List.of("encoded", "encoded", "encoded"), bulk.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("registration.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void encodeAll_AfterStop_ThrowsInsteadOfWaiting() {
+        passwordHashingService.stop();
+
+        assertThrows(IllegalStateException.class, () -> passwordHashingService.encodeAll(List.of("a")));
+        assertThrows(ServiceOverloadedException.class, () -> passwordHashingService.encode("a"));
+    }
+
+    @Test
+    void encodeAll_StopWhilePoolIsFull_FailsInsteadOfHanging() throws Exception {
+        fillPool();
+        CompletableFuture<List<String>> bulk = CompletableFuture
+            .supplyAsync(() -> passwordHashingService.encodeAll(List.of("a")));
+        assertFalse(bulk.isDone());
+
+        // The bulk caller gets its permit once the pool drains, after the shutdown
+        passwordHashingService.stop();
+        release.countDown();
+
+        CompletableFuture<Throwable> failure = bulk.handle((result, ex) -> ex);
+        assertEquals(IllegalStateException.class, failure.get(5, TimeUnit.SECONDS).getCause().getClass());
+    }
+
+    /**
+     * Occupy the hashing thread and the one queue slot with passwords that block until released
+     */
+    private List<CompletableFuture<String>> fillPool() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "encoded";
+        });
+        List<CompletableFuture<String>> inFlight = new ArrayList<>();
+        inFlight.add(CompletableFuture.supplyAsync(() -> passwordHashingService.encode("running")));
+        started.await(5, TimeUnit.SECONDS);
+        inFlight.add(CompletableFuture.supplyAsync(() -> passwordHashingService.encode("queued")));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("registration.hashing.queue.depth").gauge().value() < 1
+            && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return inFlight;
+    }
+}
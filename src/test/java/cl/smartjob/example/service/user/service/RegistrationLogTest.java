@@ -0,0 +1,130 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.service.RegistrationMetrics.Phase;
+import cl.smartjob.example.service.user.util.LogCapture;
+
+/**
+ * Unit tests for RegistrationLog, capturing what it writes to the cl.smartjob.registration
+ * logger. Covers the sampling decision at each rate and logger level, and the shape of the line.
+ */
+class RegistrationLogTest {
+
+    private static final String LOGGER = "cl.smartjob.registration";
+    private static final Set<String> FIELDS = Set.of("ts", "endpoint", "outcome", "total_us", "validation_us",
+        "email_check_us", "hashing_us", "save_us", "mapping_us");
+
+    private final RegistrationLog registrationLog = new RegistrationLog();
+    private LogCapture capture;
+
+    @BeforeEach
+    void setUp() {
+        capture = LogCapture.of(LOGGER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        capture.close();
+        Configurator.setLevel(LOGGER, Level.INFO);
+    }
+
+    @Test
+    void sample_RateZero_LogsNothing() {
+        ReflectionTestUtils.setField(registrationLog, "sampleRate", 0.0);
+
+        for (int i = 0; i < 1000; i++) {
+            long[] sample = registrationLog.sample();
+            assertNull(sample);
+            registrationLog.log("create", "created", sample);
+        }
+        assertTrue(capture.messages().isEmpty());
+    }
+
+    @Test
+    void sample_RateOne_LogsEveryRegistration() {
+        ReflectionTestUtils.setField(registrationLog, "sampleRate", 1.0);
+
+        for (int i = 0; i < 100; i++) {
+            registrationLog.log("create", "created", registrationLog.sample());
+        }
+        assertEquals(100, capture.messages().size());
+    }
+
+    @Test
+    void sample_FractionalRate_LogsAboutThatShare() {
+        ReflectionTestUtils.setField(registrationLog, "sampleRate", 0.25);
+
+        for (int i = 0; i < 4000; i++) {
+            registrationLog.log("create", "created", registrationLog.sample());
+        }
+        // 1000 expected, with a standard deviation of about 27
+        int logged = capture.messages().size();
+        assertTrue(logged > 800 && logged < 1200, "logged " + logged);
+    }
+
+    @Test
+    void sample_LoggerAboveInfo_LogsNothing() {
+        ReflectionTestUtils.setField(registrationLog, "sampleRate", 1.0);
+        Configurator.setLevel(LOGGER, Level.WARN);
+
+        assertNull(registrationLog.sample());
+        assertTrue(capture.messages().isEmpty());
+
+        // Turned back on at runtime
+        Configurator.setLevel(LOGGER, Level.INFO);
+        assertNotNull(registrationLog.sample());
+    }
+
+    @Test
+    void log_Sampled_WritesOneJsonObjectWithPhaseTimings() throws Exception {
+        ReflectionTestUtils.setField(registrationLog, "sampleRate", 1.0);
+        long before = System.currentTimeMillis();
+
+        long[] sample = registrationLog.sample();
+        sample[Phase.VALIDATION.ordinal()] = TimeUnit.MICROSECONDS.toNanos(31);
+        sample[Phase.EMAIL_CHECK.ordinal()] = TimeUnit.MICROSECONDS.toNanos(5287);
+        sample[Phase.HASHING.ordinal()] = TimeUnit.MICROSECONDS.toNanos(204375);
+        sample[Phase.SAVE.ordinal()] = TimeUnit.MICROSECONDS.toNanos(15838);
+        sample[Phase.MAPPING.ordinal()] = TimeUnit.MICROSECONDS.toNanos(582);
+        registrationLog.log("async", RegistrationLog.QUEUED, sample);
+
+        List<String> messages = capture.messages();
+        assertEquals(1, messages.size());
+        assertFalse(messages.get(0).contains("\n"));
+        JsonNode line = new ObjectMapper().readTree(messages.get(0));
+        List<String> fields = new ArrayList<>();
+        line.fieldNames().forEachRemaining(fields::add);
+        assertEquals(FIELDS, Set.copyOf(fields));
+        assertEquals(FIELDS.size(), fields.size());
+
+        assertTrue(line.get("ts").asLong() >= before);
+        assertEquals("async", line.get("endpoint").asText());
+        assertEquals("queued", line.get("outcome").asText());
+        assertTrue(line.get("total_us").isIntegralNumber());
+        assertEquals(31, line.get("validation_us").asLong());
+        assertEquals(5287, line.get("email_check_us").asLong());
+        assertEquals(204375, line.get("hashing_us").asLong());
+        assertEquals(15838, line.get("save_us").asLong());
+        assertEquals(582, line.get("mapping_us").asLong());
+    }
+}
@@ -0,0 +1,55 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import cl.smartjob.example.service.user.repository.OutboxEventRepository;
+import cl.smartjob.example.service.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Integration test for RegistrationWarmup against the in-memory database. Checks that the warm-up
+ * goes through the registration of UserService and that nothing it writes is committed.
+ */
+@SpringBootTest(properties = { "warmup.enabled=true", "warmup.iterations=3", "outbox.relay.interval=1h" })
+class RegistrationWarmupTest {
+
+    // Keep the event log out of the working directory
+    @TempDir
+    static Path eventLogDirectory;
+
+    @DynamicPropertySource
+    static void eventLogProperties(DynamicPropertyRegistry registry) {
+        registry.add("outbox.log.directory", eventLogDirectory::toString);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void run_Enabled_RegistersThroughUserServiceAndLeavesNothingBehind() {
+        assertEquals(1, meterRegistry.get("registration.warmup").timer().count());
+        assertEquals(3, meterRegistry.get("registration.outcome").tag("outcome", "created").counter().count());
+        // The index is not seeded yet, so every iteration queries the database
+        assertEquals(3, meterRegistry.get("registration.email-index.false-positives").counter().count());
+
+        assertEquals(0, userRepository.count());
+        assertEquals(0, outboxEventRepository.count());
+        assertFalse(userRepository.existsByEmail("warmup@warmup.invalid"));
+    }
+}
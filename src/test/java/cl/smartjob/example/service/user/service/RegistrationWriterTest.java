@@ -0,0 +1,204 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.RegistrationStatusDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import cl.smartjob.example.service.user.mapper.EntityUserMapper;
+import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.util.ValidationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Unit tests for RegistrationWriter. Covers the email and queue reservations, the flush of queued
+ * registrations on shutdown and the fallback when a group commit is rejected.
+ */
+@ExtendWith(MockitoExtension.class)
+class RegistrationWriterTest {
+
+    private static final String DUPLICATE_EMAIL = "taken@smartjob.cl";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailIndexService emailIndexService;
+
+    @Mock
+    private ValidationUtil validationUtil;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RegistrationMetrics registrationMetrics;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private RegistrationWriter registrationWriter;
+
+    private final List<String> transaction = new CopyOnWriteArrayList<>();
+    private final Set<String> committed = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registrationWriter, "entityUserMapper", new EntityUserMapper());
+        ReflectionTestUtils.setField(registrationWriter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registrationWriter, "shardRouter", UserServiceTest.singleShard());
+        ReflectionTestUtils.setField(registrationWriter, "queueCapacity", 100);
+        ReflectionTestUtils.setField(registrationWriter, "maxBatchSize", 50);
+        ReflectionTestUtils.setField(registrationWriter, "maxDelay", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(registrationWriter, "shutdownTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(registrationWriter, "statusExpireAfterWrite", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(registrationWriter, "overloadedMessage", "overloaded");
+        lenient().when(validationUtil.getUserMessage()).thenReturn("El usuario se encuentra registrado");
+
+        // Each transaction commits the users it persisted, unless one of them has the taken email
+        doAnswer(invocation -> transaction.add(invocation.<User>getArgument(0).getEmail()))
+            .when(entityManager).persist(any(User.class));
+        doAnswer(invocation -> {
+            transaction.clear();
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            if (transaction.contains(DUPLICATE_EMAIL)) {
+                throw new DataIntegrityViolationException("unique constraint",
+                    new ConstraintViolationException("unique constraint", null, "PUBLIC.UK_USERS_EMAIL"));
+            }
+            committed.addAll(transaction);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        registrationWriter.start();
+    }
+
+    @Test
+    void reserve_EmailQueued_IsHeldUntilCommitted() throws Exception {
+        UUID id = UUID.randomUUID();
+        registrationWriter.reserveSlot();
+        assertTrue(registrationWriter.reserve("juan@smartjob.cl", id));
+        assertFalse(registrationWriter.reserve("juan@smartjob.cl", UUID.randomUUID()));
+
+        registrationWriter.enqueue(id, request("juan@smartjob.cl"), "encoded");
+        registrationWriter.stop();
+
+        assertFalse(registrationWriter.isReserved("juan@smartjob.cl"));
+        assertEquals(RegistrationStatusDTO.CREATED, registrationWriter.status(id).getStatus());
+        verify(emailIndexService).add("juan@smartjob.cl");
+    }
+
+    @Test
+    void stop_QueuedRegistrations_AreAllCommitted() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UUID id = UUID.randomUUID();
+            registrationWriter.reserveSlot();
+            registrationWriter.reserve("user" + i + "@smartjob.cl", id);
+            registrationWriter.enqueue(id, request("user" + i + "@smartjob.cl"), "encoded");
+            ids.add(id);
+        }
+        registrationWriter.stop();
+
+        assertEquals(20, committed.size());
+        ids.forEach(id -> assertEquals(RegistrationStatusDTO.CREATED, registrationWriter.status(id).getStatus()));
+        assertThrows(ServiceOverloadedException.class,
+            () -> registrationWriter.enqueue(UUID.randomUUID(), request("late@smartjob.cl"), "encoded"));
+    }
+
+    @Test
+    void enqueue_DuplicateInGroup_FailsOnlyTheDuplicate() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID duplicate = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            registrationWriter.reserveSlot();
+        }
+        registrationWriter.enqueue(first, request("first@smartjob.cl"), "encoded");
+        registrationWriter.enqueue(duplicate, request(DUPLICATE_EMAIL), "encoded");
+        registrationWriter.enqueue(last, request("last@smartjob.cl"), "encoded");
+        registrationWriter.stop();
+
+        assertEquals(Set.of("first@smartjob.cl", "last@smartjob.cl"), committed);
+        RegistrationStatusDTO failed = registrationWriter.status(duplicate);
+        assertEquals(RegistrationStatusDTO.FAILED, failed.getStatus());
+        assertEquals(409, failed.getCode());
+        assertEquals(RegistrationStatusDTO.CREATED, registrationWriter.status(first).getStatus());
+        assertEquals(RegistrationStatusDTO.CREATED, registrationWriter.status(last).getStatus());
+        verify(registrationMetrics, times(2)).outcome(RegistrationMetrics.Outcome.CREATED);
+        verify(registrationMetrics).outcome(RegistrationMetrics.Outcome.DUPLICATE);
+    }
+
+    @Test
+    void reserveSlot_QueueFull_ThrowsUntilWriterTakesOne() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            registrationWriter.reserveSlot();
+        }
+        assertThrows(ServiceOverloadedException.class, registrationWriter::reserveSlot);
+
+        // A registration that is not queued gives its place back
+        registrationWriter.releaseSlot();
+        registrationWriter.reserveSlot();
+
+        // So does one the writer takes off the queue
+        UUID id = UUID.randomUUID();
+        registrationWriter.reserve("juan@smartjob.cl", id);
+        registrationWriter.enqueue(id, request("juan@smartjob.cl"), "encoded");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!committed.contains("juan@smartjob.cl") && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        registrationWriter.reserveSlot();
+        assertThrows(ServiceOverloadedException.class, registrationWriter::reserveSlot);
+
+        // Nor are places given out once the writer stops
+        registrationWriter.releaseSlot();
+        registrationWriter.stop();
+        assertThrows(ServiceOverloadedException.class, registrationWriter::reserveSlot);
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+            .name("Juan Rodriguez")
+            .email(email)
+            .password("Password123!")
+            .phones(List.of(new PhoneDTO("1234567", "1", "57")))
+            .build();
+    }
+}
@@ -0,0 +1,146 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+
+/**
+ * Integration test for registrations spread over the four in-memory shards of the sharded
+ * profile. Checks that every user lands on the shard of its email, with its phones, that lookups
+ * and duplicates are resolved on that shard, and that the listing walks all of them in order.
+ */
+@SpringBootTest(properties = "outbox.relay.interval=1h")
+@ActiveProfiles("sharded")
+class ShardedRegistrationTest {
+
+    private static final int USERS = 40;
+
+    // Keep the event log out of the working directory
+    @TempDir
+    static Path eventLogDirectory;
+
+    @DynamicPropertySource
+    static void eventLogProperties(DynamicPropertyRegistry registry) {
+        registry.add("outbox.log.directory", eventLogDirectory::toString);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserQueryService userQueryService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void registrations_AreRoutedByEmail_AndListedAcrossShards() throws Exception {
+        when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
+        assertEquals(4, shardRouter.shardCount());
+
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < USERS / 2; i++) {
+            ids.add(userService.registerUser(request("single" + i + "@rodriguez.org")).getId());
+        }
+        List<UserRequestDTO> batch = new ArrayList<>();
+        for (int i = 0; i < USERS / 2; i++) {
+            batch.add(request("batch" + i + "@rodriguez.org"));
+        }
+        for (BatchItemResultDTO result : userService.registerUsers(batch)) {
+            assertEquals(201, result.getStatus());
+            ids.add(result.getUser().getId());
+        }
+
+        // Every shard holds some users, each on the shard of its email, with its phone
+        int total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<String> emails = shardRouter.onShard(shard,
+                () -> jdbcTemplate.queryForList("select email from users", String.class));
+            long phones = shardRouter.onShard(shard,
+                () -> jdbcTemplate.queryForObject("select count(*) from phones", Long.class));
+            assertTrue(!emails.isEmpty(), "shard " + shard + " is empty");
+            assertEquals(emails.size(), phones);
+            for (String email : emails) {
+                assertEquals(shard, shardRouter.shardOf(email), email);
+            }
+            total += emails.size();
+        }
+        assertEquals(USERS, total);
+
+        // Lookups and duplicates
+        UserResponseDTO byEmail = userQueryService.findByEmail("batch7@rodriguez.org").user();
+        assertEquals(byEmail.getEmail(), userQueryService.findById(byEmail.getId()).user().getEmail());
+        assertThrows(EmailAlreadyExistsException.class,
+            () -> userService.registerUser(request("single3@rodriguez.org")));
+
+        // The listing merges the shards in (created, id) order, page after page
+        List<UUID> listed = new ArrayList<>();
+        String after = null;
+        LocalDateTime previousCreated = LocalDateTime.MIN;
+        do {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            userQueryService.writePage(after, 7, output);
+            JsonNode page = objectMapper.readTree(output.toByteArray());
+            for (JsonNode user : page.get("users")) {
+                LocalDateTime created = LocalDateTime.parse(user.get("created").asText());
+                assertTrue(!created.isBefore(previousCreated), "listing out of order");
+                previousCreated = created;
+                listed.add(UUID.fromString(user.get("id").asText()));
+            }
+            after = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (after != null);
+        assertEquals(USERS, listed.size());
+        assertEquals(ids, new HashSet<>(listed));
+        assertNull(after);
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+            .name("Juan Rodriguez")
+            .email(email)
+            .password("Password123!")
+            .phones(List.of(new PhoneDTO("1234567", "1", "57")))
+            .build();
+    }
+}
@@ -0,0 +1,160 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
+import cl.smartjob.example.service.user.dto.ImportEventDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+
+/**
+ * Unit tests for UserImportService. Covers chunking of the input, the error lines reported for
+ * rejected items and unreadable lines, the stop on malformed JSON and the progress and summary
+ * events.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static final String LINE = "{\"name\":\"Juan\",\"email\":\"%s\",\"password\":\"Password123!\",\"phones\":[]}";
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private UserImportService userImportService;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userImportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(userImportService, "chunkSize", 2);
+    }
+
+    @Test
+    void importUsers_MoreLinesThanChunk_RegistersChunkByChunk() throws IOException {
+        // The chunk list is reused, so its size is taken when it is registered
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(userService.registerUsers(anyList())).thenAnswer(invocation -> {
+            chunkSizes.add(invocation.<List<UserRequestDTO>>getArgument(0).size());
+            return created(invocation.getArgument(0));
+        });
+
+        List<ImportEventDTO> events = importUsers(line("a@rodriguez.org"), line("b@rodriguez.org"),
+            line("c@rodriguez.org"));
+
+        verify(userService, times(2)).registerUsers(anyList());
+        assertEquals(List.of(2, 1), chunkSizes);
+        assertEquals(List.of("progress", "progress", "summary"), events.stream().map(ImportEventDTO::getType).toList());
+        assertEquals(2L, events.get(0).getProcessed());
+        assertEquals(3L, events.get(2).getCreated());
+        assertEquals(0L, events.get(2).getFailed());
+    }
+
+    @Test
+    void importUsers_RejectedItem_ReportsItsLineAndStatus() throws IOException {
+        when(userService.registerUsers(anyList())).thenReturn(List.of(
+            BatchItemResultDTO.builder().index(0).status(201).build(),
+            BatchItemResultDTO.builder().index(1).status(409).mensaje("El usuario se encuentra registrado").build()));
+
+        List<ImportEventDTO> events = importUsers(line("a@rodriguez.org"), line("a@rodriguez.org"));
+
+        ImportEventDTO error = events.get(0);
+        assertEquals("error", error.getType());
+        assertEquals(2, error.getLine());
+        assertEquals(409, error.getStatus());
+        assertEquals("El usuario se encuentra registrado", error.getMensaje());
+        ImportEventDTO summary = events.get(events.size() - 1);
+        assertEquals(1L, summary.getCreated());
+        assertEquals(1L, summary.getFailed());
+    }
+
+    @Test
+    void importUsers_UnreadableLines_ReportsThemAndContinues() throws IOException {
+        when(userService.registerUsers(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        List<ImportEventDTO> events = importUsers("[1, 2]", "{\"phones\":\"1234567\"}", line("a@rodriguez.org"));
+
+        assertEquals("error", events.get(0).getType());
+        assertEquals(1, events.get(0).getLine());
+        assertEquals(400, events.get(0).getStatus());
+        assertEquals("error", events.get(1).getType());
+        assertEquals(2, events.get(1).getLine());
+        ImportEventDTO summary = events.get(events.size() - 1);
+        assertEquals(3L, summary.getProcessed());
+        assertEquals(1L, summary.getCreated());
+        assertEquals(2L, summary.getFailed());
+    }
+
+    @Test
+    void importUsers_MalformedJson_KeepsPrecedingLinesAndStops() throws IOException {
+        when(userService.registerUsers(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        List<ImportEventDTO> events = importUsers(line("a@rodriguez.org"), "{\"name\": \"Juan\" \"email\"",
+            line("b@rodriguez.org"));
+
+        verify(userService).registerUsers(anyList());
+        assertEquals(List.of("progress", "error", "summary"), events.stream().map(ImportEventDTO::getType).toList());
+        assertEquals(2, events.get(1).getLine());
+        assertEquals("JSON mal formado, la importación se detuvo en esta línea", events.get(1).getMensaje());
+        assertEquals(1L, events.get(2).getCreated());
+        assertEquals(1L, events.get(2).getFailed());
+    }
+
+    @Test
+    void importUsers_EmptyInput_WritesOnlySummary() throws IOException {
+        List<ImportEventDTO> events = importUsers();
+
+        verify(userService, never()).registerUsers(anyList());
+        assertEquals(1, events.size());
+        assertEquals("summary", events.get(0).getType());
+        assertEquals(0L, events.get(0).getProcessed());
+    }
+
+    private List<ImportEventDTO> importUsers(String... lines) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImportEventDTO summary = userImportService.importUsers(
+            new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), output);
+
+        List<ImportEventDTO> events = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            events.add(objectMapper.readValue(line, ImportEventDTO.class));
+        }
+        assertEquals(summary, events.get(events.size() - 1));
+        return events;
+    }
+
+    private static String line(String email) {
+        return LINE.formatted(email);
+    }
+
+    private static List<BatchItemResultDTO> created(List<UserRequestDTO> chunk) {
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(BatchItemResultDTO.builder().index(i).status(201).build());
+        }
+        return results;
+    }
+}
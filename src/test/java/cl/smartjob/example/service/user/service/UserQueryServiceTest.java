@@ -0,0 +1,249 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.smartjob.example.service.user.entity.User;
+import cl.smartjob.example.service.user.exception.UserNotFoundException;
+import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.mapper.DtoUserMapper;
+import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.service.UserQueryService.CachedUser;
+import cl.smartjob.example.service.user.util.PageCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for UserQueryService. Covers the cached lookups by id and email, their eviction, the
+ * users not found, the entity tags, and the listing: the (created, id) merge of the shard pages,
+ * its cursors and its validation.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserQueryServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 10, 18, 9, 30);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserQueryService userQueryService;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userQueryService, "dtoUserMapper", new DtoUserMapper());
+        ReflectionTestUtils.setField(userQueryService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userQueryService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(userQueryService, "shardRouter", UserServiceTest.singleShard());
+        ReflectionTestUtils.setField(userQueryService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(userQueryService, "expireAfterWrite", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(userQueryService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(userQueryService, "notFoundMessage", "Usuario no encontrado");
+        userQueryService.initializeCaches();
+
+        user = user("juan@rodriguez.org", CREATED, UUID.randomUUID());
+    }
+
+    @Test
+    void findById_RepeatedLookup_LoadsOnce() {
+        when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
+
+        CachedUser first = userQueryService.findById(user.getId());
+        CachedUser second = userQueryService.findById(user.getId());
+
+        assertSame(first, second);
+        assertEquals("juan@rodriguez.org", first.user().getEmail());
+        assertEquals(UserQueryService.etag(user.getModified()), first.etag());
+        verify(userRepository).findWithPhonesById(user.getId());
+    }
+
+    @Test
+    void findById_AfterEvict_LoadsAgain() {
+        when(userRepository.findWithPhonesById(user.getId())).thenReturn(Optional.of(user));
+        userQueryService.findById(user.getId());
+
+        userQueryService.evict(user.getId(), user.getEmail());
+        userQueryService.findById(user.getId());
+
+        verify(userRepository, times(2)).findWithPhonesById(user.getId());
+    }
+
+    @Test
+    void findById_MissingUser_ThrowsAndIsNotCached() {
+        UUID id = UUID.randomUUID();
+        when(userRepository.findWithPhonesById(id)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userQueryService.findById(id));
+        assertThrows(UserNotFoundException.class, () -> userQueryService.findById(id));
+
+        verify(userRepository, times(2)).findWithPhonesById(id);
+    }
+
+    @Test
+    void findByEmail_RepeatedLookup_LoadsOnceAndFillsIdCache() {
+        when(userRepository.findWithPhonesByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        CachedUser byEmail = userQueryService.findByEmail(user.getEmail());
+        CachedUser again = userQueryService.findByEmail(user.getEmail());
+        CachedUser byId = userQueryService.findById(user.getId());
+
+        assertSame(byEmail, again);
+        assertSame(byEmail, byId);
+        verify(userRepository).findWithPhonesByEmail(user.getEmail());
+        verify(userRepository, times(0)).findWithPhonesById(user.getId());
+    }
+
+    @Test
+    void findByEmail_AfterEvictById_LoadsAgain() {
+        when(userRepository.findWithPhonesByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        userQueryService.findByEmail(user.getEmail());
+
+        // A write evicts by id even when the email it had is no longer known
+        userQueryService.evict(user.getId(), null);
+        userQueryService.findByEmail(user.getEmail());
+
+        verify(userRepository, times(2)).findWithPhonesByEmail(user.getEmail());
+    }
+
+    @Test
+    void findByEmail_MissingUser_Throws() {
+        when(userRepository.findWithPhonesByEmail("nadie@rodriguez.org")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userQueryService.findByEmail("nadie@rodriguez.org"));
+    }
+
+    @Test
+    void etag_ModifiedTimes_AreWeakAndChangeWithTheVersion() {
+        String etag = UserQueryService.etag(CREATED);
+
+        assertTrue(etag.startsWith("W/\""));
+        assertEquals(etag, UserQueryService.etag(LocalDateTime.of(2026, 10, 18, 9, 30)));
+        assertNotEquals(etag, UserQueryService.etag(CREATED.plusNanos(1_000)));
+    }
+
+    @Test
+    void writePage_TwoShards_MergesInCreatedIdOrder() throws IOException {
+        // Same creation time: the ids decide, compared as unsigned bytes like BINARY(16)
+        User first = user("a@rodriguez.org", CREATED, new UUID(0x1L, 0));
+        User second = user("b@rodriguez.org", CREATED, new UUID(0x8000000000000000L, 0));
+        User third = user("c@rodriguez.org", CREATED.plusSeconds(1), UUID.randomUUID());
+        User fourth = user("d@rodriguez.org", CREATED.plusSeconds(2), UUID.randomUUID());
+        ReflectionTestUtils.setField(userQueryService, "shardRouter", twoShards());
+        when(userRepository.findPageIds(Limit.of(3)))
+            .thenReturn(List.of(first.getId(), fourth.getId()))
+            .thenReturn(List.of(second.getId(), third.getId()));
+        // Each shard returns its users in no particular order
+        when(userRepository.findAllWithPhonesByIdIn(any()))
+            .thenReturn(List.of(fourth, first))
+            .thenReturn(List.of(third, second));
+
+        JsonNode page = writePage(null, 3);
+
+        assertEquals(List.of("a@rodriguez.org", "b@rodriguez.org", "c@rodriguez.org"), emails(page));
+        assertEquals(new PageCursor(third.getCreated(), third.getId()), PageCursor.decode(page.get("next").asText()));
+    }
+
+    @Test
+    void writePage_Cursor_SeeksAfterItOnEveryShard() throws IOException {
+        PageCursor cursor = new PageCursor(CREATED, user.getId());
+        ReflectionTestUtils.setField(userQueryService, "shardRouter", twoShards());
+        when(userRepository.findPageIdsAfter(CREATED, user.getId(), Limit.of(2))).thenReturn(List.of());
+
+        JsonNode page = writePage(cursor.encode(), 2);
+
+        verify(userRepository, times(2)).findPageIdsAfter(CREATED, user.getId(), Limit.of(2));
+        assertTrue(emails(page).isEmpty());
+        assertTrue(page.get("next").isNull());
+    }
+
+    @Test
+    void writePage_FewerUsersThanPageSize_NextIsNull() throws IOException {
+        when(userRepository.findPageIds(Limit.of(5))).thenReturn(List.of(user.getId()));
+        when(userRepository.findAllWithPhonesByIdIn(List.of(user.getId()))).thenReturn(List.of(user));
+
+        JsonNode page = writePage(null, 5);
+
+        assertEquals(List.of("juan@rodriguez.org"), emails(page));
+        assertTrue(page.get("next").isNull());
+    }
+
+    @Test
+    void writePage_MalformedCursor_ThrowsValidation() {
+        ValidationException ex = assertThrows(ValidationException.class, () -> writePage("not-a-cursor", 5));
+
+        assertEquals("El cursor de la página no es válido", ex.getMessage());
+    }
+
+    @Test
+    void writePage_PageSizeOutOfRange_ThrowsValidation() {
+        assertThrows(ValidationException.class, () -> writePage(null, 0));
+        assertThrows(ValidationException.class, () -> writePage(null, 101));
+    }
+
+    private JsonNode writePage(String after, int pageSize) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userQueryService.writePage(after, pageSize, output);
+        return objectMapper.readTree(output.toByteArray());
+    }
+
+    private static List<String> emails(JsonNode page) {
+        List<String> emails = new ArrayList<>();
+        page.get("users").forEach(user -> emails.add(user.get("email").asText()));
+        return emails;
+    }
+
+    /**
+     * Router that runs every action on two shards, one after the other
+     */
+    private static ShardRouter twoShards() {
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        when(shardRouter.onEveryShard(any())).thenAnswer(invocation -> {
+            Supplier<?> action = invocation.getArgument(0);
+            return List.of(action.get(), action.get());
+        });
+        return shardRouter;
+    }
+
+    private static User user(String email, LocalDateTime created, UUID id) {
+        User user = new User("Juan Rodriguez", email, "encodedPassword");
+        user.setId(id);
+        user.setPhones(new ArrayList<>());
+        user.setCreated(created);
+        user.setModified(created);
+        return user;
+    }
+}
@@ -0,0 +1,106 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.repository.UserRepository;
+
+/**
+ * Integration test for concurrent registrations of the same email against the in-memory database.
+ * Every request passes the existence check before any of them commits, so the unique constraint
+ * alone decides which one wins.
+ */
+// One hashing thread per request, so all of them can be held at the same time
+@SpringBootTest(properties = {"outbox.relay.interval=1h", "registration.hashing.parallelism=8"})
+class UserServiceConcurrentRegistrationTest {
+
+    private static final int REQUESTS = 8;
+    private static final String EMAIL = "race@rodriguez.org";
+
+    // Keep the event log out of the working directory
+    @TempDir
+    static Path eventLogDirectory;
+
+    @DynamicPropertySource
+    static void eventLogProperties(DynamicPropertyRegistry registry) {
+        registry.add("outbox.log.directory", eventLogDirectory::toString);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void registerUser_SameEmailInParallel_OnlyOneIsCreated() throws Exception {
+        CountDownLatch checked = new CountDownLatch(REQUESTS);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            // Hold every request past the existence check until all of them got there
+            checked.countDown();
+            checked.await(10, TimeUnit.SECONDS);
+            return "encodedPassword";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> userService.registerUser(request())));
+            }
+            int created = 0;
+            int duplicates = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertTrue(ex.getCause() instanceof EmailAlreadyExistsException, ex.getCause().toString());
+                    duplicates++;
+                }
+            }
+
+            assertEquals(1, created);
+            assertEquals(REQUESTS - 1, duplicates);
+            assertTrue(userRepository.existsByEmail(EMAIL));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static UserRequestDTO request() {
+        return UserRequestDTO.builder()
+            .name("Juan Rodriguez")
+            .email(EMAIL)
+            .password("Password123!")
+            .phones(List.of(new PhoneDTO("1234567", "1", "57")))
+            .build();
+    }
+}
@@ -0,0 +1,99 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.dto.UserResponseDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Integration test for the registration flow against the in-memory database. Uses a slow password
+ * encoder to check that no pooled connection is held while hashing, and that the time connections
+ * are checked out is limited to the database statements.
+ * 
+ * @author Carlos Icaza
+ */
+// The outbox relay would take connections of its own while the registration is measured
+@SpringBootTest(properties = "outbox.relay.interval=1h")
+class UserServiceConnectionHoldTest {
+
+    private static final long HASH_DELAY_MILLIS = 300;
+
+    // Keep the event log out of the working directory
+    @TempDir
+    static Path eventLogDirectory;
+
+    @DynamicPropertySource
+    static void eventLogProperties(DynamicPropertyRegistry registry) {
+        registry.add("outbox.log.directory", eventLogDirectory::toString);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void registerUser_DoesNotHoldConnectionWhileHashing() {
+        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+        AtomicInteger activeWhileHashing = new AtomicInteger(-1);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            activeWhileHashing.set(hikariDataSource.getHikariPoolMXBean().getActiveConnections());
+            Thread.sleep(HASH_DELAY_MILLIS);
+            return "encodedPassword";
+        });
+
+        // Warm up Hibernate and the JIT so the measurement only covers the statements
+        userService.registerUser(request("warmup@rodriguez.org"));
+
+        Timer usage = meterRegistry.get("hikaricp.connections.usage").timer();
+        long countBefore = usage.count();
+        double millisBefore = usage.totalTime(TimeUnit.MILLISECONDS);
+
+        UserResponseDTO result = userService.registerUser(request("hold@rodriguez.org"));
+
+        assertNotNull(result.getId());
+        assertEquals(0, activeWhileHashing.get());
+
+        long checkouts = usage.count() - countBefore;
+        double heldMillis = usage.totalTime(TimeUnit.MILLISECONDS) - millisBefore;
+        assertTrue(checkouts > 0);
+        assertTrue(heldMillis < HASH_DELAY_MILLIS,
+            "connections were held for " + heldMillis + " ms in " + checkouts + " checkouts");
+    }
+
+    private UserRequestDTO request(String email) {
+        return new UserRequestDTO("Juan Rodriguez", email, "Password123!",
+            Arrays.asList(new PhoneDTO("1234567", "1", "57")));
+    }
+}
@@ -0,0 +1,153 @@
+package cl.smartjob.example.service.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+import cl.smartjob.example.service.user.dto.PhoneDTO;
+import cl.smartjob.example.service.user.dto.UserRequestDTO;
+import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
+import cl.smartjob.example.service.user.exception.ValidationException;
+import cl.smartjob.example.service.user.util.LogCapture;
+
+/**
+ * Integration test for rejected registrations against the in-memory database. Every statement
+ * Hibernate prepares is captured through the SQL log, and the password encoder is a mock, to check
+ * that invalid input, duplicates and overload are rejected without a hash, with at most the one
+ * existence query, and with exceptions that carry no stack trace.
+ */
+// The outbox relay would prepare statements of its own while they are captured
+@SpringBootTest(properties = { "outbox.relay.interval=1h", "sql-log.sample-rate=1", "registration.async.queue-capacity=2" })
+class UserServiceRejectionTest {
+
+    private static final String SQL_LOGGER = "cl.smartjob.sql";
+
+    // Keep the event log out of the working directory
+    @TempDir
+    static Path eventLogDirectory;
+
+    @DynamicPropertySource
+    static void eventLogProperties(DynamicPropertyRegistry registry) {
+        registry.add("outbox.log.directory", eventLogDirectory::toString);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RegistrationWriter registrationWriter;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    private LogCapture statements;
+
+    @BeforeEach
+    void setUp() {
+        when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
+        Configurator.setLevel(SQL_LOGGER, Level.DEBUG);
+        statements = LogCapture.of(SQL_LOGGER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statements.close();
+        Configurator.setLevel(SQL_LOGGER, Level.INFO);
+    }
+
+    @Test
+    void registerUser_InvalidEmail_SkipsDatabaseAndHash() {
+        UserRequestDTO request = request("not-an-email");
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> userService.registerUser(request));
+        assertEquals(0, ex.getStackTrace().length);
+        assertTrue(statements.messages().isEmpty(), statements.messages().toString());
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void registerUser_InvalidPassword_SkipsDatabaseAndHash() {
+        UserRequestDTO request = request("weak@rodriguez.org");
+        request.setPassword("weak");
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> userService.registerUser(request));
+        assertEquals(0, ex.getStackTrace().length);
+        assertTrue(statements.messages().isEmpty(), statements.messages().toString());
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void registerUser_DuplicateInEmailIndex_RunsOnlyExistenceQueryAndSkipsHash() {
+        userService.registerUser(request("duplicate@rodriguez.org"));
+        clearInvocations(passwordEncoder);
+        statements.close();
+        statements = LogCapture.of(SQL_LOGGER);
+
+        // The email index flags the email, the existence query confirms it
+        EmailAlreadyExistsException ex = assertThrows(EmailAlreadyExistsException.class,
+            () -> userService.registerUser(request("duplicate@rodriguez.org")));
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(1, statements.messages().size(), statements.messages().toString());
+        assertTrue(statements.messages().get(0).startsWith("select"), statements.messages().get(0));
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void registerUser_DuplicateOfQueuedRegistration_SkipsDatabaseAndHash() {
+        UUID id = UUID.randomUUID();
+        registrationWriter.reserve("queued@rodriguez.org", id);
+        try {
+            EmailAlreadyExistsException ex = assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.registerUser(request("queued@rodriguez.org")));
+            assertEquals(0, ex.getStackTrace().length);
+        } finally {
+            registrationWriter.release("queued@rodriguez.org", id);
+        }
+        assertTrue(statements.messages().isEmpty(), statements.messages().toString());
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void registerUserAsync_WriteQueueFull_SkipsDatabaseAndHash() {
+        registrationWriter.reserveSlot();
+        registrationWriter.reserveSlot();
+        try {
+            ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+                () -> userService.registerUserAsync(request("overload@rodriguez.org")));
+            assertEquals(0, ex.getStackTrace().length);
+        } finally {
+            registrationWriter.releaseSlot();
+            registrationWriter.releaseSlot();
+        }
+        assertTrue(statements.messages().isEmpty(), statements.messages().toString());
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    private UserRequestDTO request(String email) {
+        return new UserRequestDTO("Juan Rodriguez", email, "Password123!",
+            Arrays.asList(new PhoneDTO("1234567", "1", "57")));
+    }
+}
@@ -1,10 +1,19 @@
 package cl.smartjob.example.service.user.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -14,21 +23,34 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import cl.smartjob.example.service.user.config.ShardingProperties;
+import cl.smartjob.example.service.user.dto.BatchItemResultDTO;
 import cl.smartjob.example.service.user.dto.PhoneDTO;
 import cl.smartjob.example.service.user.dto.UserRequestDTO;
 import cl.smartjob.example.service.user.dto.UserResponseDTO;
 import cl.smartjob.example.service.user.entity.User;
 import cl.smartjob.example.service.user.exception.EmailAlreadyExistsException;
+import cl.smartjob.example.service.user.exception.ServiceOverloadedException;
 import cl.smartjob.example.service.user.exception.ValidationException;
 import cl.smartjob.example.service.user.mapper.DtoUserMapper;
 import cl.smartjob.example.service.user.mapper.EntityUserMapper;
 import cl.smartjob.example.service.user.repository.UserRepository;
+import cl.smartjob.example.service.user.service.RegistrationMetrics.Outcome;
+import cl.smartjob.example.service.user.util.LogCapture;
 import cl.smartjob.example.service.user.util.ValidationUtil;
+import jakarta.validation.Validator;
 
 /**
  * Unit tests for UserService. Covers user registration scenarios including success and various
@@ -53,7 +75,28 @@ class UserServiceTest {
     private ValidationUtil validationUtil;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private EmailIndexService emailIndexService;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RegistrationMetrics registrationMetrics;
+
+    @Mock
+    private RegistrationLog registrationLog;
+
+    @Mock
+    private RegistrationWriter registrationWriter;
+
+    @Mock
+    private OutboxService outboxService;
 
     @InjectMocks
     private UserService userService;
@@ -75,6 +118,9 @@ class UserServiceTest {
         userResponseDTO.setId(user.getId());
         userResponseDTO.setName("Juan Rodriguez");
         userResponseDTO.setEmail("juan@rodriguez.org");
+
+        lenient().when(emailIndexService.mightContain(anyString())).thenReturn(true);
+        ReflectionTestUtils.setField(userService, "shardRouter", singleShard());
     }
 
     @Test
@@ -82,9 +128,11 @@ class UserServiceTest {
         when(validationUtil.isValidEmail(anyString())).thenReturn(true);
         when(validationUtil.isValidPassword(anyString())).thenReturn(true);
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedPassword");
         when(entityUserMapper.toUser(any(UserRequestDTO.class), anyString())).thenReturn(user);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<User>>getArgument(0).doInTransaction(null));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
         when(dtoUserMapper.toResponseDTO(any(User.class))).thenReturn(userResponseDTO);
 
         UserResponseDTO result = userService.registerUser(userRequestDTO);
@@ -92,7 +140,27 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals("Juan Rodriguez", result.getName());
         assertEquals("juan@rodriguez.org", result.getEmail());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(outboxService).userRegistered(user);
+        verify(registrationMetrics).outcome(Outcome.CREATED);
+    }
+
+    @Test
+    void registerUser_EmailIndexMiss_SkipsExistsQuery() {
+        when(emailIndexService.mightContain(anyString())).thenReturn(false);
+        when(validationUtil.isValidEmail(anyString())).thenReturn(true);
+        when(validationUtil.isValidPassword(anyString())).thenReturn(true);
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedPassword");
+        when(entityUserMapper.toUser(any(UserRequestDTO.class), anyString())).thenReturn(user);
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<User>>getArgument(0).doInTransaction(null));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(dtoUserMapper.toResponseDTO(any(User.class))).thenReturn(userResponseDTO);
+
+        userService.registerUser(userRequestDTO);
+
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(emailIndexService).add("juan@rodriguez.org");
     }
 
     @Test
@@ -122,5 +190,113 @@ class UserServiceTest {
 
         assertThrows(EmailAlreadyExistsException.class,
             () -> userService.registerUser(userRequestDTO));
+        verify(registrationMetrics).outcome(Outcome.DUPLICATE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registerUsers_MixedItems_ReportsEachResult() {
+        ReflectionTestUtils.setField(userService, "batchChunkSize", 10);
+        UserRequestDTO invalidPassword = new UserRequestDTO("Ana", "ana@rodriguez.org", "weak",
+            Arrays.asList());
+        UserRequestDTO duplicate = new UserRequestDTO("Juan Rodriguez", "juan@rodriguez.org",
+            "Password123!", Arrays.asList());
+
+        when(validationUtil.isValidEmail(anyString())).thenReturn(true);
+        when(validationUtil.isValidPassword(anyString()))
+            .thenAnswer(invocation -> !"weak".equals(invocation.getArgument(0)));
+        when(validationUtil.getPasswordMessage()).thenReturn("Invalid password format");
+        when(validationUtil.getUserMessage()).thenReturn("User already registered");
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordHashingService.encodeAll(anyList()))
+            .thenAnswer(invocation -> Collections.nCopies(invocation.<List<String>>getArgument(0).size(),
+                "encodedPassword"));
+        when(entityUserMapper.toUser(any(UserRequestDTO.class), eq("encodedPassword"))).thenReturn(user);
+        when(dtoUserMapper.toResponseDTO(any(User.class))).thenReturn(userResponseDTO);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+
+        List<BatchItemResultDTO> results = userService.registerUsers(
+            Arrays.asList(userRequestDTO, invalidPassword, duplicate));
+
+        assertEquals(3, results.size());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals("Invalid password format", results.get(1).getMensaje());
+        assertEquals(409, results.get(2).getStatus());
+        verify(registrationMetrics).outcome(Outcome.INVALID_PASSWORD);
+        verify(userRepository).saveAll(anyList());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void registerUserAsync_WriteQueueFull_ThrowsBeforeCheckingOrHashing() {
+        when(validationUtil.isValidEmail(anyString())).thenReturn(true);
+        when(validationUtil.isValidPassword(anyString())).thenReturn(true);
+        doThrow(new ServiceOverloadedException("overloaded", 1)).when(registrationWriter).reserveSlot();
+
+        assertThrows(ServiceOverloadedException.class, () -> userService.registerUserAsync(userRequestDTO));
+        verify(registrationWriter, never()).reserve(anyString(), any());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(registrationWriter, never()).releaseSlot();
+        verify(registrationMetrics).outcome(Outcome.OVERLOADED);
+    }
+
+    @Test
+    void registerUserAsync_HashingPoolFull_ReleasesEmailAndQueueSlot() {
+        when(validationUtil.isValidEmail(anyString())).thenReturn(true);
+        when(validationUtil.isValidPassword(anyString())).thenReturn(true);
+        when(registrationWriter.reserve(anyString(), any())).thenReturn(true);
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(passwordHashingService.encode(anyString())).thenThrow(new ServiceOverloadedException("overloaded", 1));
+
+        assertThrows(ServiceOverloadedException.class, () -> userService.registerUserAsync(userRequestDTO));
+        verify(registrationWriter).release(eq("juan@rodriguez.org"), any());
+        verify(registrationWriter).releaseSlot();
+        verify(registrationWriter, never()).enqueue(any(), any(), anyString());
+        verify(registrationMetrics).outcome(Outcome.OVERLOADED);
+    }
+
+    @Test
+    void registerUser_SampledInRegistrationLog_LogsNoPersonalData() {
+        RegistrationLog sampleAll = new RegistrationLog();
+        ReflectionTestUtils.setField(sampleAll, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(userService, "registrationLog", sampleAll);
+        when(validationUtil.isValidEmail(anyString())).thenReturn(true);
+        when(validationUtil.isValidPassword(anyString())).thenReturn(true);
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedPassword");
+        when(entityUserMapper.toUser(any(UserRequestDTO.class), anyString())).thenReturn(user);
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<User>>getArgument(0).doInTransaction(null));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(dtoUserMapper.toResponseDTO(any(User.class))).thenReturn(userResponseDTO);
+
+        List<String> messages;
+        try (LogCapture capture = LogCapture.of("cl.smartjob.registration")) {
+            userService.registerUser(userRequestDTO);
+            messages = capture.messages();
+        }
+
+        assertEquals(1, messages.size());
+        String line = messages.get(0);
+        assertTrue(line.contains("\"outcome\":\"created\""), line);
+        for (String personal : List.of("juan@rodriguez.org", "rodriguez", "Juan", "Password123!", "encodedPassword",
+            "1234567", user.getId().toString())) {
+            assertFalse(line.contains(personal), personal);
+        }
+    }
+
+    /**
+     * Router of an unsharded database, as configured by default
+     */
+    static ShardRouter singleShard() {
+        ShardRouter shardRouter = new ShardRouter();
+        ReflectionTestUtils.setField(shardRouter, "shardingProperties", new ShardingProperties(List.of()));
+        shardRouter.start();
+        return shardRouter;
     }
 }
@@ -0,0 +1,165 @@
+package cl.smartjob.example.service.user.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests for CompiledValidator. Checks that it gives the same results as java.util.regex for
+ * the configured regexes and other regexes of the supported subset, over a generated corpus.
+ *
+ * @author Carlos Icaza
+ */
+class CompiledValidatorTest {
+
+    private static final String ALPHABET = "aZz09@.-_%+!$*?&#[] \n\r\tñÁ€";
+    private static final Properties PROPERTIES = loadApplicationProperties();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"validation.email.regex", "validation.password.regex"})
+    void compile_ConfiguredRegex_MatchesLikePattern(String property) {
+        String regex = PROPERTIES.getProperty(property);
+
+        assertEquivalent(regex, corpus(regex, 50000));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "", "a", "^abc$", "[a-c]?x*[0-9]{2,4}", "\\d+\\.\\d{1,3}", "(?=.*\\d)(?=.*[A-Z])\\w{3,}",
+        "(?=.*?@)[\\s@x]*", "[\\w.-]+@[a-z]+", "[-a]+[a-]*[\\-z]?", "a{0}b{1}c{2}d{0,2}", "x+?y*?z??"
+    })
+    void compile_SupportedRegex_MatchesLikePattern(String regex) {
+        assertEquivalent(regex, corpus(regex, 20000));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"(a|b)+", "a.b", "[^a]", "(?i)abc", "[a-z&&[^x]]", "\\bword\\b", "a++", "(?!x)a", "[a-z]{100}"})
+    void compile_UnsupportedRegex_ReturnsNull(String regex) {
+        assertNull(CompiledValidator.compile(regex));
+    }
+
+    @Test
+    void matches_LongInput_RunsInLinearTime() {
+        CompiledValidator email = CompiledValidator.compile(PROPERTIES.getProperty("validation.email.regex"));
+        CompiledValidator password = CompiledValidator.compile(PROPERTIES.getProperty("validation.password.regex"));
+        assertNotNull(email);
+        assertNotNull(password);
+
+        String longDomain = "a@" + "a.".repeat(500000) + "a";
+        String longPassword = "Aa1!".repeat(250000);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            assertFalse(email.matches(longDomain));
+            assertTrue(email.matches(longDomain + "a"));
+            assertFalse(email.matches(longDomain + "a!"));
+            assertTrue(password.matches(longPassword));
+            assertFalse(password.matches(longPassword + " "));
+        });
+    }
+
+    @Test
+    void matches_Null_ReturnsFalse() {
+        assertFalse(CompiledValidator.compile(PROPERTIES.getProperty("validation.email.regex")).matches(null));
+    }
+
+    private static void assertEquivalent(String regex, List<String> corpus) {
+        CompiledValidator compiled = CompiledValidator.compile(regex);
+        Pattern pattern = Pattern.compile(regex);
+        assertNotNull(compiled, regex);
+
+        int matched = 0;
+        for (String input : corpus) {
+            boolean expected = pattern.matcher(input).matches();
+            assertEquals(expected, compiled.matches(input), () -> regex + " on \"" + input + "\"");
+            matched += expected ? 1 : 0;
+        }
+        // The corpus must exercise both outcomes
+        if (!regex.isEmpty()) {
+            assertTrue(matched > 0 && matched < corpus.size(), regex + " matched " + matched);
+        }
+    }
+
+    /**
+     * Random strings over an alphabet of edge cases, plus mutations of strings built from the regex
+     * literals, so that a good share of the corpus is close to matching
+     */
+    private static List<String> corpus(String regex, int size) {
+        Random random = new Random(42);
+        String seedChars = regex.replaceAll("[\\\\^$()\\[\\]{}?*+=,]", "") + "abcXYZ0123456789";
+        List<String> corpus = new ArrayList<>(List.of("", "a", "juan@rodriguez.org", "Password123!", "aaaa@bbbb.cc",
+            "Ab1!Ab1!", "Ab1!\nAb1!", "a@b.c", "a@b.cl\n", "-@-.aa", "123", "abc", "xyzz"));
+        while (corpus.size() < size) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(16);
+            boolean fromRegex = random.nextBoolean();
+            for (int i = 0; i < length; i++) {
+                String source = fromRegex && random.nextInt(8) > 0 ? seedChars : ALPHABET;
+                input.append(source.charAt(random.nextInt(source.length())));
+            }
+            corpus.add(input.toString());
+        }
+
+        // Mutations of known matches: insert, delete or replace one char
+        List<String> matches = new ArrayList<>();
+        Pattern pattern = Pattern.compile(regex);
+        for (String input : corpus) {
+            if (pattern.matcher(input).matches()) {
+                matches.add(input);
+            }
+        }
+        for (String input : matches) {
+            for (int i = 0; i < 3 && !input.isEmpty(); i++) {
+                int at = random.nextInt(input.length());
+                char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                corpus.add(input.substring(0, at) + c + input.substring(at));
+                corpus.add(input.substring(0, at) + input.substring(at + 1));
+                corpus.add(input.substring(0, at) + c + input.substring(at + 1));
+            }
+        }
+        corpus.addAll(emailsAndPasswords(random, size / 2));
+        return corpus;
+    }
+
+    private static List<String> emailsAndPasswords(Random random, int size) {
+        String local = "abcXYZ019._%+-";
+        String domain = "abcXYZ019.-";
+        String password = "aZ9@$!%*?&-#";
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            inputs.add(random(random, local, 1 + random.nextInt(6)) + "@" + random(random, domain, 1 + random.nextInt(6))
+                + "." + random(random, "abcXYZ1", random.nextInt(4)));
+            inputs.add(random(random, password, 6 + random.nextInt(5)));
+        }
+        return inputs;
+    }
+
+    private static String random(Random random, String alphabet, int length) {
+        StringBuilder value = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return value.toString();
+    }
+
+    private static Properties loadApplicationProperties() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        return yaml.getObject();
+    }
+}
@@ -0,0 +1,88 @@
+package cl.smartjob.example.service.user.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for ContentFormats. Covers the negotiation of the response format by quality and
+ * order of preference, the JSON fallback of missing, unsupported and malformed Accept headers, and
+ * the parser factory picked by Content-Type.
+ */
+class ContentFormatsTest {
+
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private ObjectMapper cbor;
+    private ContentFormats contentFormats;
+
+    @BeforeEach
+    void setUp() {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        smile = Jackson2ObjectMapperBuilder.smile().build();
+        cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        contentFormats = new ContentFormats(json, smile, cbor);
+    }
+
+    @Test
+    void negotiate_MissingOrWildcard_ReturnsJson() {
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate(" "));
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate("application/*"));
+    }
+
+    @Test
+    void negotiate_BinaryFormat_ReturnsIt() {
+        assertEquals(ContentFormats.SMILE, contentFormats.negotiate("application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_CBOR, contentFormats.negotiate("application/cbor"));
+    }
+
+    @Test
+    void negotiate_SeveralAccepted_PrefersQualityThenSpecificType() {
+        assertEquals(MediaType.APPLICATION_CBOR,
+            contentFormats.negotiate("application/json;q=0.5, application/cbor"));
+        assertEquals(ContentFormats.SMILE, contentFormats.negotiate("*/*, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_JSON,
+            contentFormats.negotiate("application/cbor;q=0, application/x-jackson-smile;q=0, */*"));
+    }
+
+    @Test
+    void negotiate_UnsupportedOrMalformed_ReturnsJson() {
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate("text/html"));
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate("application/cbor;q=x"));
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate("not a media type"));
+    }
+
+    @Test
+    void negotiate_MoreMediaTypesThanSortable_ReturnsJson() {
+        String accept = IntStream.range(0, 60)
+            .mapToObj(i -> "application/x-type-" + i)
+            .collect(Collectors.joining(", ")) + ", application/cbor";
+
+        assertEquals(MediaType.APPLICATION_JSON, contentFormats.negotiate(accept));
+    }
+
+    @Test
+    void factory_ByContentType_ReturnsFormatFactory() {
+        assertSame(smile.getFactory(), contentFormats.factory("application/x-jackson-smile"));
+        assertSame(cbor.getFactory(), contentFormats.factory("application/cbor"));
+        assertSame(json.getFactory(), contentFormats.factory("application/json;charset=UTF-8"));
+    }
+
+    @Test
+    void factory_MissingUnsupportedOrMalformed_ReturnsJsonFactory() {
+        assertSame(json.getFactory(), contentFormats.factory(null));
+        assertSame(json.getFactory(), contentFormats.factory("text/plain"));
+        assertSame(json.getFactory(), contentFormats.factory("not a media type"));
+    }
+}
@@ -0,0 +1,58 @@
+package cl.smartjob.example.service.user.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Test appender that keeps the formatted messages written to a logger, attached to it until
+ * closed. Messages are formatted as they arrive, since the garbage-free mode reuses its events.
+ */
+public final class LogCapture extends AbstractAppender implements AutoCloseable {
+
+    private final Logger logger;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    private LogCapture(Logger logger) {
+        super("capture-" + logger.getName(), null, null, true, Property.EMPTY_ARRAY);
+        this.logger = logger;
+    }
+
+    /**
+     * Start capturing the messages of a logger
+     * 
+     * @param loggerName name of the logger
+     * @return the capture, to be closed when done
+     */
+    public static LogCapture of(String loggerName) {
+        LogCapture capture = new LogCapture((Logger) LogManager.getLogger(loggerName));
+        capture.start();
+        capture.logger.addAppender(capture);
+        return capture;
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        messages.add(event.getMessage().getFormattedMessage());
+    }
+
+    /**
+     * Get the messages captured so far
+     * 
+     * @return the messages, in order
+     */
+    public List<String> messages() {
+        return List.copyOf(messages);
+    }
+
+    @Override
+    public void close() {
+        logger.removeAppender(this);
+        stop();
+    }
+}
@@ -0,0 +1,42 @@
+package cl.smartjob.example.service.user.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Unit tests for PageCursor. Covers the round trip of a cursor through its token and the tokens
+ * rejected as malformed.
+ */
+class PageCursorTest {
+
+    @Test
+    void decode_EncodedCursor_ReturnsSameCursor() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2026, 10, 18, 9, 24, 46, 676_442_000), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertEquals(cursor, PageCursor.decode(token));
+        // URL-safe without escaping
+        assertFalse(token.contains("=") || token.contains("+") || token.contains("/"));
+    }
+
+    @Test
+    void decode_MalformedTokens_ThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("2026-10-18T09:24:46")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("yesterday|" + UUID.randomUUID())));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("2026-10-18T09:24:46|42")));
+    }
+
+    private static String token(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,165 @@
+package cl.smartjob.example.service.user.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import cl.smartjob.example.service.user.util.SegmentLog.Entry;
+import cl.smartjob.example.service.user.util.SegmentLog.Record;
+
+/**
+ * Unit tests for SegmentLog. Covers reads across segments, recovery of a torn append, rejected
+ * records, retention and readers waiting at the end of the log.
+ */
+class SegmentLogTest {
+
+    // Room for three records of 10 byte payloads
+    private static final int SEGMENT_SIZE = 3 * (32 + 10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_RecordsSpanningSegments_ReturnsThemInOrder() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            assertEquals(0, log.append(entries(0, 4)));
+            assertEquals(4, log.append(entries(4, 4)));
+
+            List<Record> records = log.read(2, 5);
+
+            assertEquals(3, log.segmentCount());
+            assertEquals(8, log.endOffset());
+            assertEquals(List.of(2L, 3L, 4L, 5L, 6L), records.stream().map(Record::offset).toList());
+            assertEquals(List.of(key(2), key(3), key(4), key(5), key(6)), records.stream().map(Record::key).toList());
+            assertArrayEquals(payload(5), records.get(3).payload());
+            assertTrue(log.read(8, 5).isEmpty());
+        }
+    }
+
+    @Test
+    void open_TornLastRecord_DropsItAndAppendsInItsPlace() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            log.append(entries(0, 5));
+        }
+        // Damage the payload of the last record, as a crash in the middle of its append would
+        Path last = segmentFiles().getLast();
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'x'}), 42 + 32);
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            assertEquals(4, log.endOffset());
+            assertEquals(List.of(key(3)), log.tail(1).stream().map(Record::key).toList());
+
+            // The next append takes the place of the torn record
+            assertEquals(4, log.append(entries(4, 1)));
+            assertArrayEquals(payload(4), log.read(4, 1).getFirst().payload());
+        }
+    }
+
+    @Test
+    void append_EmptyPayload_ThrowsAndAppendsNothing() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            List<Entry> entries = new ArrayList<>(entries(0, 1));
+            entries.add(new Entry(key(1), new byte[0]));
+
+            // A zero length would read back as the end of the segment
+            assertThrows(IllegalArgumentException.class, () -> log.append(entries));
+
+            assertEquals(0, log.endOffset());
+            assertEquals(0, log.append(entries(0, 1)));
+        }
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            assertEquals(1, log.endOffset());
+        }
+    }
+
+    @Test
+    void append_RecordLargerThanSegment_Throws() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            List<Entry> entries = List.of(new Entry(key(0), new byte[SEGMENT_SIZE]));
+
+            assertThrows(IllegalArgumentException.class, () -> log.append(entries));
+            assertEquals(0, log.endOffset());
+        }
+    }
+
+    @Test
+    void applyRetention_ExpiredOrOversizedLog_KeepsActiveSegment() throws Exception {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            log.append(entries(0, 7));
+
+            assertEquals(0, log.applyRetention(Duration.ofDays(1), Long.MAX_VALUE));
+            assertEquals(1, log.applyRetention(Duration.ofDays(1), 2L * SEGMENT_SIZE));
+            assertEquals(3, log.startOffset());
+            // Let the records age past a zero retention
+            Thread.sleep(5);
+            assertEquals(1, log.applyRetention(Duration.ZERO, Long.MAX_VALUE));
+
+            assertEquals(6, log.startOffset());
+            assertEquals(1, log.segmentCount());
+            assertEquals(List.of(key(6)), log.read(0, 10).stream().map(Record::key).toList());
+            assertEquals(1, segmentFiles().size());
+        }
+    }
+
+    @Test
+    void awaitOffset_AppendWhileWaiting_ReturnsTrue() throws Exception {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            assertFalse(log.awaitOffset(0, Duration.ofMillis(10)));
+
+            CompletableFuture<Boolean> reader = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return log.awaitOffset(0, Duration.ofSeconds(5));
+                } catch (InterruptedException ex) {
+                    return false;
+                }
+            });
+            log.append(entries(0, 1));
+
+            assertTrue(reader.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<Entry> entries(int firstKey, int count) {
+        List<Entry> entries = new ArrayList<>(count);
+        for (int key = firstKey; key < firstKey + count; key++) {
+            entries.add(new Entry(key(key), payload(key)));
+        }
+        return entries;
+    }
+
+    private static UUID key(int key) {
+        return new UUID(0, key);
+    }
+
+    private static byte[] payload(int key) {
+        return String.format("event-%04d", key).getBytes(StandardCharsets.UTF_8);
+    }
+}
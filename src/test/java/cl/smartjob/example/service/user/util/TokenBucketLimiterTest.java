@@ -0,0 +1,72 @@
+package cl.smartjob.example.service.user.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for TokenBucketLimiter, on a manual clock. Covers bursts up to the capacity, the
+ * refill rate, the wait reported to rejected requests and the independence of keys.
+ */
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+    private TokenBucketLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // Bursts of 5, then 2 requests per second
+        limiter = new TokenBucketLimiter(5, 2, 100, Duration.ofMinutes(1), clock::get);
+    }
+
+    @Test
+    void tryAcquire_BurstUpToCapacity_AdmitsThenReportsWait() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+
+        assertEquals(SECOND / 2, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void tryAcquire_AfterPause_RefillsAtRateUpToCapacity() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("10.0.0.1");
+        }
+
+        clock.addAndGet(SECOND / 4);
+        assertEquals(SECOND / 4, limiter.tryAcquire("10.0.0.1"));
+
+        clock.addAndGet(SECOND / 4);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(SECOND / 2, limiter.tryAcquire("10.0.0.1"));
+
+        // A long pause refills the bucket, but never beyond its capacity
+        clock.addAndGet(60 * SECOND);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        assertEquals(SECOND / 2, limiter.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void tryAcquire_RejectedRequests_TakeNoToken() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("10.0.0.1");
+        }
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("10.0.0.1");
+        }
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+    }
+}
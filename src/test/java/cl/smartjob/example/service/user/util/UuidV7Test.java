@@ -0,0 +1,103 @@
+package cl.smartjob.example.service.user.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for UuidV7. Checks the layout of the ids and that they are strictly increasing in
+ * their stored byte order, within a millisecond, past the counter, and across threads.
+ */
+class UuidV7Test {
+
+    @Test
+    void generate_NewId_HasVersion7LayoutAndCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.generate();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue((id.getMostSignificantBits() >>> 16) >= before);
+    }
+
+    @Test
+    void generate_MoreIdsThanCounterInOneMillisecond_KeepIncreasing() {
+        // More ids than the 12 bit counter holds, all in the same millisecond
+        long millis = System.currentTimeMillis();
+        UUID previous = UuidV7.generate(millis);
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7.generate(millis);
+            assertTrue(compareBytes(previous, next) < 0, previous + " >= " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void generate_ClockGoesBack_KeepsIncreasing() {
+        UUID later = UuidV7.generate(System.currentTimeMillis() + 1_000);
+        UUID earlier = UuidV7.generate(System.currentTimeMillis());
+
+        assertTrue(compareBytes(later, earlier) < 0);
+    }
+
+    @Test
+    void generate_ConcurrentThreads_UniqueAndOrderedPerThread() throws InterruptedException {
+        int threads = 4;
+        int perThread = 20_000;
+        Set<UUID> all = ConcurrentHashMap.newKeySet();
+        List<Thread> workers = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger outOfOrder = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                UUID previous = UuidV7.generate();
+                all.add(previous);
+                for (int i = 1; i < perThread; i++) {
+                    UUID next = UuidV7.generate();
+                    if (compareBytes(previous, next) >= 0) {
+                        outOfOrder.incrementAndGet();
+                    }
+                    all.add(next);
+                    previous = next;
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, all.size());
+        assertEquals(0, outOfOrder.get());
+    }
+
+    /**
+     * Compare ids as stored in a BINARY(16) column, unsigned byte by byte
+     */
+    private static int compareBytes(UUID a, UUID b) {
+        return Arrays.compareUnsigned(bytes(a), bytes(b));
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array();
+    }
+}